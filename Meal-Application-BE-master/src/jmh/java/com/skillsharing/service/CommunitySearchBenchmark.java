@@ -0,0 +1,151 @@
+package com.skillsharing.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.skillsharing.dto.CommunityDTO;
+import com.skillsharing.dto.CommunityPageDTO;
+import com.skillsharing.model.Community;
+import com.skillsharing.model.User;
+
+/**
+ * Community search over a synthetic dataset in its own database, which is seeded up to
+ * the requested number of communities on the first run.
+ *
+ * textSearch is the current path: one page from the weighted text index, with creator names
+ * resolved in one query. regexSearch is the path it replaced: three case-insensitive regex
+ * scans over name, description and category, merged in that order, with one creator lookup
+ * per result. It was never paged, so it is measured returning every match.
+ *
+ *   mvn -P benchmark test-compile exec:exec -Djmh.args="CommunitySearchBenchmark -p uri=mongodb://localhost:27017/paf-project-benchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommunitySearchBenchmark {
+
+    private static final List<String> CATEGORIES = List.of(
+        "baking", "vegan cooking", "international cuisine", "weeknight dinners", "grilling", "meal prep");
+    private static final List<String> WORDS = List.of(
+        "bread", "sourdough", "pasta", "curry", "salad", "noodles", "dessert", "spicy", "quick", "healthy",
+        "family", "budget", "seasonal", "street", "food", "kitchen", "club", "lovers", "recipes", "masters");
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    @Param("mongodb://localhost:27017/paf-project-benchmark")
+    public String uri;
+
+    @Param("100000")
+    public int communities;
+
+    @Param({"sourdough", "vegan", "curry lovers", "grilling club", "zucchini"})
+    public String query;
+
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private CommunityService communityService;
+
+    @Setup
+    public void setUp() {
+        client = MongoClients.create(uri);
+        mongoTemplate = new MongoTemplate(client, new ConnectionString(uri).getDatabase());
+
+        // Without a Spring context nothing creates the annotated indexes, the text index included
+        IndexOperations indexOps = mongoTemplate.indexOps(Community.class);
+        IndexResolver.create(mongoTemplate.getConverter().getMappingContext())
+            .resolveIndexFor(Community.class)
+            .forEach(indexOps::ensureIndex);
+        seed();
+
+        communityService = new CommunityService();
+        ReflectionTestUtils.setField(communityService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(communityService, "displayNameResolver", new DisplayNameResolver(mongoTemplate));
+        ReflectionTestUtils.setField(communityService, "defaultPageSize", 20);
+        ReflectionTestUtils.setField(communityService, "maxPageSize", 100);
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+    }
+
+    @Benchmark
+    public CommunityPageDTO textSearch() {
+        return communityService.searchCommunities(query, null, 0, 20);
+    }
+
+    @Benchmark
+    public List<CommunityDTO> regexSearch() {
+        Map<String, Community> merged = new LinkedHashMap<>();
+        for (String field : List.of("name", "description", "category")) {
+            Query regex = new Query(Criteria.where(field).regex(Pattern.quote(query), "i"));
+            for (Community community : mongoTemplate.find(regex, Community.class)) {
+                merged.putIfAbsent(community.getId(), community);
+            }
+        }
+
+        List<CommunityDTO> dtos = new ArrayList<>(merged.size());
+        for (Community community : merged.values()) {
+            CommunityDTO dto = new CommunityDTO(community);
+            User creator = mongoTemplate.findById(community.getCreatorId(), User.class);
+            if (creator != null) {
+                dto.setCreatorName(creator.getFullName());
+            }
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+
+    private void seed() {
+        long existing = mongoTemplate.count(new Query(), Community.class);
+        Random random = new Random(42);
+        List<Community> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (long i = existing; i < communities; i++) {
+            batch.add(new Community(
+                word(random) + " " + word(random) + " " + i,
+                word(random) + " " + word(random) + " " + word(random) + " " + word(random),
+                CATEGORIES.get(random.nextInt(CATEGORIES.size())),
+                "benchmark-user-" + random.nextInt(1000)));
+            if (batch.size() == INSERT_BATCH_SIZE) {
+                mongoTemplate.insert(batch, Community.class);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            mongoTemplate.insert(batch, Community.class);
+        }
+    }
+
+    private static String word(Random random) {
+        return WORDS.get(random.nextInt(WORDS.size()));
+    }
+}
@@ -7,10 +7,12 @@ import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.event.EventListener;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
 
 @SpringBootApplication
 @EnableMongoAuditing
+@EnableScheduling
 @ComponentScan(basePackages = {"com.skillsharing"})
 public class SkillSharingApplication {
     private final RequestMappingHandlerMapping requestMappingHandlerMapping;
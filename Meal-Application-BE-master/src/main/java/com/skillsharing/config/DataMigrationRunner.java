@@ -0,0 +1,80 @@
+package com.skillsharing.config;
+
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+import com.skillsharing.service.CommentService;
+import com.skillsharing.service.CommunityChallengeService;
+import com.skillsharing.service.CommunityService;
+import com.skillsharing.service.ConversationService;
+import com.skillsharing.service.FollowService;
+import com.skillsharing.service.MessageService;
+import com.skillsharing.service.PostEngagementService;
+import com.skillsharing.service.TimelineService;
+import com.skillsharing.service.UserSearchService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// One-time data migrations; each step only touches documents that still need it
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DataMigrationRunner implements CommandLineRunner {
+
+    private final PostEngagementService postEngagementService;
+    private final CommentService commentService;
+    private final ConversationService conversationService;
+    private final MessageService messageService;
+    private final FollowService followService;
+    private final UserSearchService userSearchService;
+    private final CommunityService communityService;
+    private final CommunityChallengeService challengeService;
+    private final TimelineService timelineService;
+
+    @Override
+    public void run(String... args) throws Exception {
+        long backfilled = postEngagementService.backfillLikeCounts();
+        if (backfilled > 0) {
+            log.info("Backfilled likeCount on {} posts", backfilled);
+        }
+
+        commentService.migrateEmbeddedComments();
+
+        long keyed = messageService.backfillPairKeys();
+        if (keyed > 0) {
+            log.info("Set pairKey on {} messages", keyed);
+        }
+
+        conversationService.backfillConversations();
+
+        followService.migrateEmbeddedFollows();
+
+        long followCounted = followService.backfillMissingCounts();
+        if (followCounted > 0) {
+            log.info("Backfilled follow counters on {} users", followCounted);
+        }
+
+        userSearchService.backfillSearchTerms();
+
+        long counted = communityService.backfillMemberCounts();
+        if (counted > 0) {
+            log.info("Backfilled memberCount on {} communities", counted);
+        }
+
+        long postsCounted = communityService.backfillPostCounts();
+        if (postsCounted > 0) {
+            log.info("Backfilled postCount on {} communities", postsCounted);
+        }
+
+        long challengesCounted = challengeService.backfillParticipantCounts();
+        if (challengesCounted > 0) {
+            log.info("Backfilled participantCount on {} challenges", challengesCounted);
+        }
+
+        long stamped = timelineService.backfillInsertedAt();
+        if (stamped > 0) {
+            log.info("Set insertedAt on {} timeline entries", stamped);
+        }
+    }
+}
@@ -5,16 +5,19 @@ import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.skillsharing.dto.AuthRequest;
 import com.skillsharing.dto.RegisterRequest;
+import com.skillsharing.security.PasswordHashingOverloadedException;
 import com.skillsharing.service.AuthService;
 
 import lombok.RequiredArgsConstructor;
@@ -34,10 +37,23 @@ public class AuthController {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
     }
 
+    // Login bursts beyond the hashing pool are shed; the client should retry shortly
+    @ExceptionHandler(PasswordHashingOverloadedException.class)
+    public ResponseEntity<Map<String, String>> handleOverload(PasswordHashingOverloadedException e) {
+        logger.warn("Shedding auth request: {}", e.getMessage());
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Server is busy, please try again shortly");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(response);
+    }
+
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody RegisterRequest request) {
         try {
             return ResponseEntity.ok(authService.register(request));
+        } catch (PasswordHashingOverloadedException e) {
+            return handleOverload(e);
         } catch (Exception e) {
             logger.error("Registration error:", e);
             Map<String, String> response = new HashMap<>();
@@ -50,6 +66,8 @@ public class AuthController {
     public ResponseEntity<?> authenticate(@RequestBody AuthRequest request) {
         try {
             return ResponseEntity.ok(authService.authenticate(request));
+        } catch (PasswordHashingOverloadedException e) {
+            return handleOverload(e);
         } catch (Exception e) {
             logger.error("Authentication error:", e);
             Map<String, String> response = new HashMap<>();
@@ -57,4 +75,13 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
         }
     }
+
+    // Revokes the bearer token so it stops working before it expires
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String authHeader) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            authService.logout(authHeader.substring(7));
+        }
+        return ResponseEntity.ok().build();
+    }
 }
@@ -0,0 +1,154 @@
+package com.skillsharing.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skillsharing.repository.UserRepository;
+import com.skillsharing.security.ChatHandshakeInterceptor;
+import com.skillsharing.service.ChatSessionRegistry;
+import com.skillsharing.service.MessageService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Chat over WebSocket at /ws/chat. Frames are JSON objects with a "type":
+ *
+ * - send {clientId, receiverId, content}: stores the message, answers with an "ack" carrying
+ *   the stored message, and with "delivered" once a live session of the receiver has it
+ * - read {partnerId, upTo}: marks the partner's messages as read; the partner gets a "read" frame
+ * - typing {receiverId, typing}: relayed to the receiver as is, never stored
+ *
+ * Messages sent over REST reach connected receivers the same way.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChatWebSocketHandler extends TextWebSocketHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatWebSocketHandler.class);
+
+    private final MessageService messageService;
+    private final ChatSessionRegistry chatSessionRegistry;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        chatSessionRegistry.register(userId(session), session);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        chatSessionRegistry.unregister(userId(session), session);
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage textMessage) throws IOException {
+        String userId = userId(session);
+        JsonNode frame;
+        try {
+            frame = objectMapper.readTree(textMessage.getPayload());
+        } catch (IOException e) {
+            reply(userId, error(null, "Malformed frame"));
+            return;
+        }
+
+        String type = frame.path("type").asText();
+        switch (type) {
+            case "send" -> handleSend(userId, frame);
+            case "read" -> handleRead(userId, frame);
+            case "typing" -> handleTyping(userId, frame);
+            default -> reply(userId, error(frame.path("clientId").asText(null), "Unknown frame type: " + type));
+        }
+    }
+
+    private void handleSend(String userId, JsonNode frame) {
+        String clientId = frame.path("clientId").asText(null);
+        String receiverId = frame.path("receiverId").asText(null);
+        String content = frame.path("content").asText(null);
+
+        if (receiverId == null || !userRepository.existsById(receiverId)) {
+            reply(userId, error(clientId, "User not found"));
+            return;
+        }
+        if (content == null || content.trim().isEmpty()) {
+            reply(userId, error(clientId, "Message content cannot be empty"));
+            return;
+        }
+
+        MessageService.SendResult result = messageService.sendAndDeliver(userId, receiverId, content);
+
+        Map<String, Object> ack = new LinkedHashMap<>();
+        ack.put("type", "ack");
+        ack.put("clientId", clientId);
+        ack.put("message", result.message());
+        reply(userId, ack);
+
+        if (result.deliveredSessions() > 0) {
+            Map<String, Object> delivered = new LinkedHashMap<>();
+            delivered.put("type", "delivered");
+            delivered.put("clientId", clientId);
+            delivered.put("messageId", result.message().getId());
+            reply(userId, delivered);
+        }
+    }
+
+    private void handleRead(String userId, JsonNode frame) {
+        String partnerId = frame.path("partnerId").asText(null);
+        if (partnerId == null) {
+            reply(userId, error(null, "partnerId is required"));
+            return;
+        }
+
+        LocalDateTime upTo;
+        try {
+            upTo = frame.hasNonNull("upTo") ? LocalDateTime.parse(frame.get("upTo").asText()) : LocalDateTime.now();
+        } catch (DateTimeParseException e) {
+            reply(userId, error(null, "Invalid upTo timestamp"));
+            return;
+        }
+
+        messageService.markReadUpTo(userId, partnerId, upTo);
+    }
+
+    private void handleTyping(String userId, JsonNode frame) {
+        String receiverId = frame.path("receiverId").asText(null);
+        if (receiverId == null) {
+            return;
+        }
+
+        Map<String, Object> typing = new LinkedHashMap<>();
+        typing.put("type", "typing");
+        typing.put("senderId", userId);
+        typing.put("typing", frame.path("typing").asBoolean(true));
+        chatSessionRegistry.sendToUser(receiverId, messageService.toFrame(typing));
+    }
+
+    // Replies go to all of the user's sessions so their other tabs stay in sync
+    private void reply(String userId, Map<String, Object> frame) {
+        chatSessionRegistry.sendToUser(userId, messageService.toFrame(frame));
+    }
+
+    private Map<String, Object> error(String clientId, String message) {
+        logger.debug("Rejected chat frame: {}", message);
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("type", "error");
+        error.put("clientId", clientId);
+        error.put("message", message);
+        return error;
+    }
+
+    private String userId(WebSocketSession session) {
+        return (String) session.getAttributes().get(ChatHandshakeInterceptor.USER_ID_ATTRIBUTE);
+    }
+}
@@ -1,6 +1,7 @@
 package com.skillsharing.controller;
 
 import com.skillsharing.dto.CommunityDTO;
+import com.skillsharing.dto.CommunityPageDTO;
 import com.skillsharing.model.Community;
 import com.skillsharing.service.CommunityService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -41,18 +42,33 @@ public class CommunityController {
         }
     }
 
-    // Get all communities
+    // Get all communities, newest first. Passing page or size returns one page; without them the list is capped
     @GetMapping
-    public ResponseEntity<?> getAllCommunities(Authentication authentication) {
+    public ResponseEntity<?> getAllCommunities(
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            Authentication authentication) {
         String userId = authentication != null ? authentication.getName() : null;
+        if (page != null || size != null) {
+            CommunityPageDTO communities = communityService.getAllCommunities(userId, page, size);
+            return ResponseEntity.ok(communities);
+        }
         List<CommunityDTO> communities = communityService.getAllCommunities(userId);
         return ResponseEntity.ok(communities);
     }
 
-    // Get communities by category
+    // Get communities by category, paged the same way
     @GetMapping("/category/{category}")
-    public ResponseEntity<?> getCommunitiesByCategory(@PathVariable String category, Authentication authentication) {
+    public ResponseEntity<?> getCommunitiesByCategory(
+            @PathVariable String category,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            Authentication authentication) {
         String userId = authentication != null ? authentication.getName() : null;
+        if (page != null || size != null) {
+            CommunityPageDTO communities = communityService.getCommunitiesByCategory(category, userId, page, size);
+            return ResponseEntity.ok(communities);
+        }
         List<CommunityDTO> communities = communityService.getCommunitiesByCategory(category, userId);
         return ResponseEntity.ok(communities);
     }
@@ -146,10 +162,18 @@ public class CommunityController {
         }
     }
 
-    // Search communities
+    // Search communities, best matches first. Passing page or size returns one page; without them the list is capped
     @GetMapping("/search")
-    public ResponseEntity<?> searchCommunities(@RequestParam String query, Authentication authentication) {
+    public ResponseEntity<?> searchCommunities(
+            @RequestParam String query,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            Authentication authentication) {
         String userId = authentication != null ? authentication.getName() : null;
+        if (page != null || size != null) {
+            CommunityPageDTO communities = communityService.searchCommunities(query, userId, page, size);
+            return ResponseEntity.ok(communities);
+        }
         List<CommunityDTO> communities = communityService.searchCommunities(query, userId);
         return ResponseEntity.ok(communities);
     }
@@ -27,6 +27,9 @@ import com.skillsharing.model.LearningUpdate;
 import com.skillsharing.model.User;
 import com.skillsharing.repository.LearningUpdateRepository;
 import com.skillsharing.repository.UserRepository;
+import com.skillsharing.security.PrincipalCache;
+import com.skillsharing.security.UserPrincipal;
+import com.skillsharing.service.UserService;
 
 import lombok.RequiredArgsConstructor;
 
@@ -38,6 +41,8 @@ public class LearningController {
     private static final Logger logger = LoggerFactory.getLogger(LearningController.class);
     private final LearningUpdateRepository learningUpdateRepository;
     private final UserRepository userRepository;
+    private final UserService userService;
+    private final PrincipalCache principalCache;
     
     // Get learning update templates
     @GetMapping("/templates")
@@ -120,7 +125,8 @@ public class LearningController {
         
         // Update streak information
         updateLearningStreak(currentUser, learningUpdate.getCompletedAt().toLocalDate());
-        userRepository.save(currentUser);
+        userService.updateFields(currentUser,
+                "skills", "currentStreak", "longestStreak", "lastLearningDate", "learningDates");
         
         LearningUpdate savedUpdate = learningUpdateRepository.save(learningUpdate);
         
@@ -180,10 +186,7 @@ public class LearningController {
     // Delete a learning update
     @DeleteMapping("/updates/{updateId}")
     public ResponseEntity<?> deleteLearningUpdate(@PathVariable String updateId) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        
-        User currentUser = userRepository.findByEmail(email)
+        UserPrincipal currentUser = principalCache.current()
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
         Optional<LearningUpdate> updateOpt = learningUpdateRepository.findById(updateId);
@@ -263,7 +266,7 @@ public class LearningController {
                 for (String skill : newSkills) {
                     currentUser.getSkills().add(skill);
                 }
-                userRepository.save(currentUser);
+                userService.updateFields(currentUser, "skills");
             }
             
             // Update the learning update skills
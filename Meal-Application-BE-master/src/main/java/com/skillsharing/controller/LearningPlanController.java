@@ -1,14 +1,12 @@
 package com.skillsharing.controller;
 
 import com.skillsharing.model.LearningPlan;
-import com.skillsharing.model.User;
 import com.skillsharing.model.Week; // Assuming you have a Week class for the weeks field
 import com.skillsharing.repository.LearningPlanRepository;
-import com.skillsharing.repository.UserRepository;
+import com.skillsharing.security.PrincipalCache;
+import com.skillsharing.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.*;
@@ -19,15 +17,12 @@ import java.util.*;
 public class LearningPlanController {
 
     private final LearningPlanRepository learningPlanRepository;
-    private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
 
     // Add a new learning plan
     @PostMapping
     public ResponseEntity<?> createLearningPlan(@RequestBody LearningPlan plan) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-
-        User currentUser = userRepository.findByEmail(email)
+        UserPrincipal currentUser = principalCache.current()
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         plan.setUserId(currentUser.getId());
@@ -92,10 +87,7 @@ public class LearningPlanController {
 
     @PostMapping("/follow/{planId}")
     public ResponseEntity<?> followLearningPlan(@PathVariable String planId) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-    
-        User currentUser = userRepository.findByEmail(email)
+        UserPrincipal currentUser = principalCache.current()
                 .orElseThrow(() -> new RuntimeException("User not found"));
     
         Optional<LearningPlan> optionalPlan = learningPlanRepository.findById(planId);
@@ -1,18 +1,21 @@
 package com.skillsharing.controller;
 
+import com.skillsharing.dto.ConversationPageDTO;
+import com.skillsharing.dto.MessagePageDTO;
 import com.skillsharing.model.Message;
-import com.skillsharing.model.User;
-import com.skillsharing.repository.MessageRepository;
-import com.skillsharing.repository.UserRepository;
+import com.skillsharing.security.PrincipalCache;
+import com.skillsharing.security.UserPrincipal;
+import com.skillsharing.service.ConversationService;
+import com.skillsharing.service.MessageService;
+import com.skillsharing.service.UnreadCounterService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -22,156 +25,145 @@ import java.util.stream.Collectors;
 public class MessagingController {
     
     private static final Logger logger = LoggerFactory.getLogger(MessagingController.class);
-    private final MessageRepository messageRepository;
-    private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
+    private final UnreadCounterService unreadCounterService;
+    private final ConversationService conversationService;
+    private final MessageService messageService;
     
     // Send a message
     @PostMapping("/send/{receiverId}")
     public ResponseEntity<?> sendMessage(@PathVariable String receiverId, @RequestBody Map<String, String> messageRequest) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String currentUserEmail = authentication.getName();
-        
-        Optional<User> currentUserOpt = userRepository.findByEmail(currentUserEmail);
-        Optional<User> receiverUserOpt = userRepository.findById(receiverId);
+        Optional<UserPrincipal> currentUserOpt = principalCache.current();
+        Optional<UserPrincipal> receiverUserOpt = principalCache.getById(receiverId);
         
         if (currentUserOpt.isEmpty() || receiverUserOpt.isEmpty()) {
             return ResponseEntity.badRequest().body("User not found");
         }
         
-        User currentUser = currentUserOpt.get();
+        UserPrincipal currentUser = currentUserOpt.get();
         
         if (messageRequest.get("content") == null || messageRequest.get("content").trim().isEmpty()) {
             return ResponseEntity.badRequest().body("Message content cannot be empty");
         }
         
-        Message message = new Message();
-        message.setSenderId(currentUser.getId());
-        message.setReceiverId(receiverId);
-        message.setContent(messageRequest.get("content"));
-        message.setRead(false);
-        message.setCreatedAt(LocalDateTime.now());
-        
-        Message savedMessage = messageRepository.save(message);
+        Message savedMessage = messageService.send(currentUser.getId(), receiverId, messageRequest.get("content"));
         
         return ResponseEntity.ok(savedMessage);
     }
     
-    // Get conversation with a user
+    /**
+     * Conversation with a user. Passing a cursor or limit returns one page of history, most
+     * recent first; without either the whole conversation is returned as before. Messages
+     * received up to the newest one returned are marked as read.
+     */
     @GetMapping("/conversation/{userId}")
-    public ResponseEntity<?> getConversation(@PathVariable String userId) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String currentUserEmail = authentication.getName();
-        
-        Optional<User> currentUserOpt = userRepository.findByEmail(currentUserEmail);
+    public ResponseEntity<?> getConversation(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        Optional<UserPrincipal> currentUserOpt = principalCache.current();
         
         if (currentUserOpt.isEmpty()) {
             return ResponseEntity.badRequest().body("User not found");
         }
         
-        User currentUser = currentUserOpt.get();
-        
-        // Get all messages between the two users
-        List<Message> messages = messageRepository.findMessagesBetweenUsers(currentUser.getId(), userId);
-        
-        // Sort by timestamp
-        messages.sort(Comparator.comparing(Message::getCreatedAt));
-        
-        // Mark received messages as read
-        for (Message message : messages) {
-            if (message.getReceiverId().equals(currentUser.getId()) && !message.isRead()) {
-                message.setRead(true);
-                messageRepository.save(message);
+        UserPrincipal currentUser = currentUserOpt.get();
+        
+        if (cursor != null || limit != null) {
+            try {
+                MessagePageDTO page = messageService.getHistory(currentUser.getId(), userId, cursor, limit);
+                // Older pages contain nothing newer than what the first page already marked
+                if (cursor == null && !page.getMessages().isEmpty()) {
+                    Message newest = page.getMessages().get(page.getMessages().size() - 1);
+                    messageService.markReadUpTo(currentUser.getId(), userId, newest.getCreatedAt());
+                }
+                return ResponseEntity.ok(page);
+            } catch (IllegalArgumentException e) {
+                Map<String, String> errorResponse = new HashMap<>();
+                errorResponse.put("message", e.getMessage());
+                return ResponseEntity.badRequest().body(errorResponse);
             }
         }
         
+        List<Message> messages = messageService.getFullHistory(currentUser.getId(), userId);
+        if (!messages.isEmpty()) {
+            messageService.markReadUpTo(currentUser.getId(), userId, messages.get(messages.size() - 1).getCreatedAt());
+        }
+        
         return ResponseEntity.ok(messages);
     }
     
-    // Get all conversations
-    @GetMapping("/conversations")
-    public ResponseEntity<?> getAllConversations() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String currentUserEmail = authentication.getName();
-        
-        Optional<User> currentUserOpt = userRepository.findByEmail(currentUserEmail);
+    /**
+     * Read receipt: marks everything the user received in this conversation up to "upTo"
+     * (ISO date-time, defaults to now) as read and returns how many messages changed.
+     */
+    @PostMapping("/conversation/{userId}/read")
+    public ResponseEntity<?> markConversationRead(
+            @PathVariable String userId,
+            @RequestBody(required = false) Map<String, String> readRequest) {
+        Optional<UserPrincipal> currentUserOpt = principalCache.current();
         
         if (currentUserOpt.isEmpty()) {
             return ResponseEntity.badRequest().body("User not found");
         }
         
-        User currentUser = currentUserOpt.get();
+        LocalDateTime upTo;
+        try {
+            upTo = readRequest != null && readRequest.get("upTo") != null
+                ? LocalDateTime.parse(readRequest.get("upTo"))
+                : LocalDateTime.now();
+        } catch (DateTimeParseException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("message", "Invalid upTo timestamp");
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
         
-        // Get all messages sent or received by the current user
-        List<Message> allMessages = messageRepository.findAllBySenderIdOrReceiverId(currentUser.getId());
+        long marked = messageService.markReadUpTo(currentUserOpt.get().getId(), userId, upTo);
         
-        // Extract unique conversation partners
-        Set<String> partnerIds = new HashSet<>();
-        for (Message message : allMessages) {
-            if (message.getSenderId().equals(currentUser.getId())) {
-                partnerIds.add(message.getReceiverId());
-            } else {
-                partnerIds.add(message.getSenderId());
-            }
+        Map<String, Long> response = new HashMap<>();
+        response.put("updated", marked);
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Inbox, read from the conversation summaries. Passing a cursor or limit returns one page
+     * with a nextCursor; without either every conversation is returned as before.
+     */
+    @GetMapping("/conversations")
+    public ResponseEntity<?> getAllConversations(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        Optional<UserPrincipal> currentUserOpt = principalCache.current();
+        
+        if (currentUserOpt.isEmpty()) {
+            return ResponseEntity.badRequest().body("User not found");
         }
         
-        // Fetch user details and latest message for each conversation
-        List<Map<String, Object>> conversations = new ArrayList<>();
-        for (String partnerId : partnerIds) {
-            Optional<User> partnerOpt = userRepository.findById(partnerId);
-            if (partnerOpt.isPresent()) {
-                User partner = partnerOpt.get();
-                
-                // Get the latest message in this conversation
-                List<Message> conversationMessages = messageRepository.findMessagesBetweenUsers(currentUser.getId(), partnerId);
-                conversationMessages.sort((m1, m2) -> m2.getCreatedAt().compareTo(m1.getCreatedAt()));
-                
-                Message latestMessage = !conversationMessages.isEmpty() ? conversationMessages.get(0) : null;
-                
-                // Count unread messages
-                long unreadCount = conversationMessages.stream()
-                    .filter(m -> m.getReceiverId().equals(currentUser.getId()) && !m.isRead())
-                    .count();
-                
-                Map<String, Object> conversation = new HashMap<>();
-                conversation.put("userId", partner.getId());
-                conversation.put("username", partner.getUsername());
-                conversation.put("firstName", partner.getFirstName());
-                conversation.put("lastName", partner.getLastName());
-                conversation.put("profilePicture", partner.getProfilePicture());
-                conversation.put("latestMessage", latestMessage);
-                conversation.put("unreadCount", unreadCount);
-                
-                conversations.add(conversation);
+        UserPrincipal currentUser = currentUserOpt.get();
+        
+        try {
+            ConversationPageDTO page = conversationService.getInbox(currentUser.getId(), cursor, limit);
+            if (cursor == null && limit == null) {
+                return ResponseEntity.ok(page.getConversations());
             }
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
         }
-        
-        // Sort by latest message timestamp
-        conversations.sort((c1, c2) -> {
-            Message m1 = (Message) c1.get("latestMessage");
-            Message m2 = (Message) c2.get("latestMessage");
-            
-            if (m1 == null) return 1;
-            if (m2 == null) return -1;
-            
-            return m2.getCreatedAt().compareTo(m1.getCreatedAt());
-        });
-        
-        return ResponseEntity.ok(conversations);
     }
     
     // Get unread message count
     @GetMapping("/unread-count")
     public ResponseEntity<Map<String, Long>> getUnreadMessageCount() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String currentUserEmail = authentication.getName();
-        
-        Optional<User> currentUserOpt = userRepository.findByEmail(currentUserEmail);
+        Optional<UserPrincipal> currentUserOpt = principalCache.current();
         if (currentUserOpt.isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
         
-        User currentUser = currentUserOpt.get();
-        long count = messageRepository.countByReceiverIdAndRead(currentUser.getId(), false);
+        UserPrincipal currentUser = currentUserOpt.get();
+        long count = unreadCounterService.getUnreadMessages(currentUser.getId());
         
         Map<String, Long> response = new HashMap<>();
         response.put("count", count);
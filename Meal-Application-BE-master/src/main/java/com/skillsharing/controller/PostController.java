@@ -8,7 +8,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.UUID;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,16 +23,26 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.skillsharing.dto.CommentPageDTO;
+import com.skillsharing.dto.FeedPageDTO;
 import com.skillsharing.dto.PostRequestDTO;
 import com.skillsharing.dto.SharePostDTO;
 import com.skillsharing.model.Notification;
 import com.skillsharing.model.Post;
-import com.skillsharing.model.User;
-import com.skillsharing.repository.NotificationRepository;
+import com.skillsharing.model.PostComment;
+import com.skillsharing.repository.PostCommentRepository;
 import com.skillsharing.repository.PostRepository;
-import com.skillsharing.repository.UserRepository;
+import com.skillsharing.security.PrincipalCache;
+import com.skillsharing.security.UserPrincipal;
+import com.skillsharing.service.CommentService;
+import com.skillsharing.service.FeedService;
+import com.skillsharing.service.FollowService;
+import com.skillsharing.service.PostEngagementService;
+import com.skillsharing.service.NotificationDispatcher;
+import com.skillsharing.service.TimelineService;
 
 import lombok.RequiredArgsConstructor;
 
@@ -44,21 +53,29 @@ public class PostController {
     private static final Logger logger = LoggerFactory.getLogger(PostController.class);
     
     private final PostRepository postRepository;
-    private final UserRepository userRepository;
-    private final NotificationRepository notificationRepository;
+    private final NotificationDispatcher notificationDispatcher;
+    private final FeedService feedService;
+    private final TimelineService timelineService;
+    private final FollowService followService;
+    private final PostEngagementService postEngagementService;
+    private final CommentService commentService;
+    private final PostCommentRepository postCommentRepository;
+    private final PrincipalCache principalCache;
+    
+    // The caller from the principal cache; none of these endpoints change the user, so none reads it
+    private UserPrincipal currentPrincipal() {
+        return principalCache.currentProfile()
+            .orElseThrow(() -> new RuntimeException("User not found"));
+    }
     
     @PostMapping
     public ResponseEntity<Post> createPost(@RequestBody PostRequestDTO request) {
         logger.info("Creating post with content: {}", request.getContent());
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        
-        User currentUser = userRepository.findByEmail(email)
-            .orElseThrow(() -> new RuntimeException("User not found"));
+        UserPrincipal currentUser = currentPrincipal();
         
         Post post = Post.builder()
             .authorId(currentUser.getId())
-            .authorUsername(currentUser.getUsername())
+            .authorUsername(currentUser.getHandle())
             .authorFirstName(currentUser.getFirstName())
             .authorLastName(currentUser.getLastName())
             .authorProfilePicture(currentUser.getProfilePicture())
@@ -72,19 +89,34 @@ public class PostController {
         Post savedPost = postRepository.save(post);
         logger.info("Post created: {}", savedPost.getId());
         
+        timelineService.fanOut(savedPost);
+        
         return ResponseEntity.ok(savedPost);
     }
     
+    /**
+     * Home feed. Passing a cursor or limit switches to keyset pagination and returns
+     * a page with a nextCursor; without either the full feed is returned as before.
+     */
     @GetMapping
-    public ResponseEntity<List<Post>> getFeedPosts() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
+    public ResponseEntity<?> getFeedPosts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        UserPrincipal currentUser = currentPrincipal();
         
-        User currentUser = userRepository.findByEmail(email)
-            .orElseThrow(() -> new RuntimeException("User not found"));
+        if (cursor != null || limit != null) {
+            try {
+                FeedPageDTO page = feedService.getFeedPage(currentUser.getId(), cursor, limit);
+                return ResponseEntity.ok(page);
+            } catch (IllegalArgumentException e) {
+                Map<String, String> errorResponse = new HashMap<>();
+                errorResponse.put("message", e.getMessage());
+                return ResponseEntity.badRequest().body(errorResponse);
+            }
+        }
         
         // Get posts from users that current user follows, plus their own posts
-        Set<String> followingIds = new HashSet<>(currentUser.getFollowing());
+        Set<String> followingIds = new HashSet<>(followService.getFollowingIds(currentUser.getId()));
         followingIds.add(currentUser.getId()); // Include own posts
         
         List<Post> posts = postRepository.findByAuthorIdIn(
@@ -138,11 +170,7 @@ public class PostController {
     
     @DeleteMapping("/{postId}")
     public ResponseEntity<?> deletePost(@PathVariable String postId) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        
-        User currentUser = userRepository.findByEmail(email)
-            .orElseThrow(() -> new RuntimeException("User not found"));
+        UserPrincipal currentUser = currentPrincipal();
         
         Post post = postRepository.findById(postId)
             .orElseThrow(() -> new RuntimeException("Post not found"));
@@ -152,18 +180,24 @@ public class PostController {
             return ResponseEntity.status(403).body("You are not authorized to delete this post");
         }
         
+        List<String> removedPostIds = new ArrayList<>();
+        removedPostIds.add(postId);
+        
         // Delete any share posts if this is an original post
         if (post.getOriginalPostId() == null) {
             // This is an original post - find and delete all shares of this post
             List<Post> sharedPosts = postRepository.findByOriginalPostId(postId);
             if (!sharedPosts.isEmpty()) {
                 postRepository.deleteAll(sharedPosts);
+                sharedPosts.forEach(shared -> removedPostIds.add(shared.getId()));
                 logger.info("Deleted {} shared posts for original post: {}", sharedPosts.size(), postId);
             }
         }
         
         // Delete the post itself
         postRepository.delete(post);
+        commentService.deleteCommentsForPosts(removedPostIds);
+        timelineService.removePosts(removedPostIds);
         logger.info("Post deleted: {}", postId);
         
         Map<String, Object> response = new HashMap<>();
@@ -171,31 +205,47 @@ public class PostController {
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * Page through a post's comments, newest first
+     */
+    @GetMapping("/{postId}/comments")
+    public ResponseEntity<?> getComments(
+            @PathVariable String postId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        if (!postRepository.existsById(postId)) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        try {
+            CommentPageDTO page = commentService.getComments(postId, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+    }
+    
     /**
      * Delete a comment from a post
      * Authorization: Only the comment author or post author can delete a comment
      */
     @DeleteMapping("/{postId}/comments/{commentId}")
     public ResponseEntity<?> deleteComment(@PathVariable String postId, @PathVariable String commentId) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        
-        User currentUser = userRepository.findByEmail(email)
-            .orElseThrow(() -> new RuntimeException("User not found"));
+        UserPrincipal currentUser = currentPrincipal();
         
         Post post = postRepository.findById(postId)
             .orElseThrow(() -> new RuntimeException("Post not found"));
         
         // Find the comment to delete
-        Optional<Post.Comment> commentOpt = post.getComments().stream()
-            .filter(c -> c.getId().equals(commentId))
-            .findFirst();
+        Optional<PostComment> commentOpt = postCommentRepository.findByIdAndPostId(commentId, postId);
         
         if (commentOpt.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
         
-        Post.Comment comment = commentOpt.get();
+        PostComment comment = commentOpt.get();
         
         // Check if current user is authorized to delete this comment
         // (either they are the comment author or the post author)
@@ -203,13 +253,8 @@ public class PostController {
             return ResponseEntity.status(403).body("You are not authorized to delete this comment");
         }
         
-        // Remove the comment
-        List<Post.Comment> comments = new ArrayList<>(post.getComments());
-        comments.removeIf(c -> c.getId().equals(commentId));
-        post.setComments(comments);
-        
-        // Save the updated post
-        Post updatedPost = postRepository.save(post);
+        // Remove the comment and refresh the post's preview
+        Post updatedPost = commentService.deleteComment(comment);
         logger.info("Comment {} deleted from post: {}", commentId, postId);
         
         Map<String, Object> response = new HashMap<>();
@@ -228,32 +273,22 @@ public class PostController {
             @PathVariable String commentId,
             @RequestBody Map<String, String> commentData) {
         
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        
-        User currentUser = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        Optional<Post> postOpt = postRepository.findById(postId);
+        UserPrincipal currentUser = currentPrincipal();
         
-        if (postOpt.isEmpty()) {
+        if (!postRepository.existsById(postId)) {
             logger.warn("Attempt to edit comment on non-existent post: {}", postId);
             return ResponseEntity.notFound().build();
         }
         
-        Post post = postOpt.get();
-        
         // Find the comment to edit
-        Optional<Post.Comment> commentOpt = post.getComments().stream()
-                .filter(c -> c.getId().equals(commentId))
-                .findFirst();
+        Optional<PostComment> commentOpt = postCommentRepository.findByIdAndPostId(commentId, postId);
                 
         if (commentOpt.isEmpty()) {
             logger.warn("Attempt to edit non-existent comment: {}", commentId);
             return ResponseEntity.notFound().build();
         }
         
-        Post.Comment comment = commentOpt.get();
+        PostComment comment = commentOpt.get();
         
         // Verify that the current user is the author of the comment
         if (!comment.getUserId().equals(currentUser.getId())) {
@@ -273,31 +308,7 @@ public class PostController {
             return ResponseEntity.badRequest().body(errorResponse);
         }
         
-        // Create a new list of comments to avoid modification issues
-        List<Post.Comment> updatedComments = new ArrayList<>();
-        
-        for (Post.Comment c : post.getComments()) {
-            if (c.getId().equals(commentId)) {
-                // Create a new comment with updated values to ensure proper modification
-                Post.Comment updatedComment = Post.Comment.builder()
-                    .id(c.getId())
-                    .userId(c.getUserId())
-                    .username(c.getUsername())
-                    .userProfilePicture(c.getUserProfilePicture())
-                    .content(newContent)
-                    .createdAt(c.getCreatedAt())
-                    .updatedAt(LocalDateTime.now())
-                    .edited(true)
-                    .build();
-                updatedComments.add(updatedComment);
-            } else {
-                updatedComments.add(c);
-            }
-        }
-        
-        post.setComments(updatedComments);
-        
-        Post updatedPost = postRepository.save(post);
+        Post updatedPost = commentService.editComment(comment, newContent);
         logger.info("Comment {} updated successfully for post {}", commentId, postId);
         
         // Create response with updated post
@@ -316,20 +327,7 @@ public class PostController {
             @PathVariable String postId,
             @RequestBody Map<String, String> commentData) {
         
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        
-        User currentUser = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        Optional<Post> postOpt = postRepository.findById(postId);
-        
-        if (postOpt.isEmpty()) {
-            logger.warn("Attempt to comment on non-existent post: {}", postId);
-            return ResponseEntity.notFound().build();
-        }
-        
-        Post post = postOpt.get();
+        UserPrincipal currentUser = currentPrincipal();
         
         String content = commentData.get("content");
         if (content == null || content.trim().isEmpty()) {
@@ -339,31 +337,20 @@ public class PostController {
             return ResponseEntity.badRequest().body(errorResponse);
         }
         
-        Post.Comment comment = Post.Comment.builder()
-            .id(UUID.randomUUID().toString())
-            .userId(currentUser.getId())
-            .username(currentUser.getUsername())
-            .userProfilePicture(currentUser.getProfilePicture())
-            .content(content)
-            .createdAt(LocalDateTime.now())
-            .updatedAt(LocalDateTime.now()) // Initialize updatedAt when creating
-            .edited(false)  // Initialize edited flag as false
-            .build();
+        Post post = commentService.addComment(postId, currentUser.getId(), currentUser.getHandle(), currentUser.getProfilePicture(), content);
         
-        if (post.getComments() == null) {
-            post.setComments(new ArrayList<>());
+        if (post == null) {
+            logger.warn("Attempt to comment on non-existent post: {}", postId);
+            return ResponseEntity.notFound().build();
         }
         
-        post.getComments().add(comment);
-        Post updatedPost = postRepository.save(post);
-        
         // Create notification if this isn't the user's own post
         if (!post.getAuthorId().equals(currentUser.getId())) {
             try {
                 Notification notification = new Notification();
                 notification.setUserId(post.getAuthorId());
                 notification.setSenderId(currentUser.getId());
-                notification.setSenderUsername(currentUser.getUsername());
+                notification.setSenderUsername(currentUser.getHandle());
                 notification.setSenderProfilePicture(currentUser.getProfilePicture());
                 notification.setType("COMMENT");
                 notification.setResourceId(post.getId());
@@ -371,13 +358,14 @@ public class PostController {
                 // Use full name in notification message
                 String commenterName = currentUser.getFirstName() != null && currentUser.getLastName() != null
                     ? currentUser.getFirstName() + " " + currentUser.getLastName()
-                    : currentUser.getUsername();
+                    : currentUser.getHandle();
                 
+                notification.setSenderName(commenterName);
                 notification.setMessage(commenterName + " commented on your post");
                 notification.setRead(false);
                 notification.setCreatedAt(LocalDateTime.now());
                 
-                notificationRepository.save(notification);
+                notificationDispatcher.publish(notification);
             } catch (Exception e) {
                 // Log but don't fail the comment if notification fails
                 logger.error("Failed to create notification for comment", e);
@@ -387,108 +375,78 @@ public class PostController {
         // Create response with updated post
         Map<String, Object> response = new HashMap<>();
         response.put("message", "Comment added successfully");
-        response.put("post", updatedPost);
+        response.put("post", post);
         
         return ResponseEntity.ok(response);
     }
     
     @PostMapping("/{postId}/like")
     public ResponseEntity<?> likePost(@PathVariable String postId) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        
-        User currentUser = userRepository.findByEmail(email)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        Post post = postRepository.findById(postId)
-            .orElseThrow(() -> new RuntimeException("Post not found"));
+        UserPrincipal currentUser = currentPrincipal();
         
-        Set<String> likes = post.getLikes();
-        String userId = currentUser.getId();
+        // Toggle like status atomically without loading the post body
+        PostEngagementService.LikeResult result = postEngagementService.toggleLike(postId, currentUser.getId());
+        if (result == null) {
+            throw new RuntimeException("Post not found");
+        }
         
-        boolean liked = false;
+        boolean liked = result.liked();
         
-        // Toggle like status
-        if (likes.contains(userId)) {
-            likes.remove(userId);
-        } else {
-            likes.add(userId);
-            liked = true;
-            
-            // Only create notification if the user is liking the post (not unliking)
-            // and if they're not liking their own post
-            if (liked && !post.getAuthorId().equals(currentUser.getId())) {
-                try {
-                    Notification notification = new Notification();
-                    notification.setUserId(post.getAuthorId());
-                    notification.setSenderId(currentUser.getId());
-                    notification.setSenderUsername(currentUser.getUsername());
-                    notification.setSenderProfilePicture(currentUser.getProfilePicture());
-                    notification.setType("LIKE");
-                    notification.setResourceId(postId);
-                    
-                    // Use full name in the notification message
-                    String fullName = currentUser.getFirstName() != null && currentUser.getLastName() != null
-                        ? currentUser.getFirstName() + " " + currentUser.getLastName()
-                        : currentUser.getFirstName() != null
-                            ? currentUser.getFirstName() 
-                            : currentUser.getLastName() != null 
-                                ? currentUser.getLastName() 
-                                : currentUser.getUsername();
-                    
-                    notification.setMessage(fullName + " liked your post");
-                    notification.setRead(false);
-                    notification.setCreatedAt(LocalDateTime.now());
-                    
-                    notificationRepository.save(notification);
-                    logger.info("Created like notification for user: {}", post.getAuthorId());
-                } catch (Exception e) {
-                    logger.error("Failed to create notification", e);
-                    // Continue with the like operation even if notification creation fails
-                }
+        // Only create notification if the user is liking the post (not unliking)
+        // and if they're not liking their own post
+        if (liked && !result.authorId().equals(currentUser.getId())) {
+            try {
+                Notification notification = new Notification();
+                notification.setUserId(result.authorId());
+                notification.setSenderId(currentUser.getId());
+                notification.setSenderUsername(currentUser.getHandle());
+                notification.setSenderProfilePicture(currentUser.getProfilePicture());
+                notification.setType("LIKE");
+                notification.setResourceId(postId);
+                
+                // Use full name in the notification message
+                String fullName = currentUser.getFirstName() != null && currentUser.getLastName() != null
+                    ? currentUser.getFirstName() + " " + currentUser.getLastName()
+                    : currentUser.getFirstName() != null
+                        ? currentUser.getFirstName() 
+                        : currentUser.getLastName() != null 
+                            ? currentUser.getLastName() 
+                            : currentUser.getHandle();
+                
+                notification.setSenderName(fullName);
+                notification.setMessage(fullName + " liked your post");
+                notification.setRead(false);
+                notification.setCreatedAt(LocalDateTime.now());
+                
+                notificationDispatcher.publish(notification);
+                logger.info("Created like notification for user: {}", result.authorId());
+            } catch (Exception e) {
+                logger.error("Failed to create notification", e);
+                // Continue with the like operation even if notification creation fails
             }
         }
         
-        post.setLikes(likes);
-        Post updatedPost = postRepository.save(post);
-        
         Map<String, Object> response = new HashMap<>();
         response.put("liked", liked);
-        response.put("likeCount", likes.size());
+        response.put("likeCount", result.likeCount());
         
         return ResponseEntity.ok(response);
     }
     
     @PostMapping("/{postId}/comment")
     public ResponseEntity<Post> addCommentToPost(@PathVariable String postId, @RequestBody Map<String, String> request) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        
-        User currentUser = userRepository.findByEmail(email)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        Post post = postRepository.findById(postId)
-            .orElseThrow(() -> new RuntimeException("Post not found"));
+        UserPrincipal currentUser = currentPrincipal();
         
         String content = request.get("content");
         if (content == null || content.trim().isEmpty()) {
             throw new RuntimeException("Comment content cannot be empty");
         }
         
-        Post.Comment comment = Post.Comment.builder()
-            .id(UUID.randomUUID().toString())
-            .userId(currentUser.getId())
-            .username(currentUser.getUsername())
-            .userProfilePicture(currentUser.getProfilePicture())
-            .content(content)
-            .createdAt(LocalDateTime.now())
-            .build();
-        
-        List<Post.Comment> comments = post.getComments();
-        comments.add(comment);
-        post.setComments(comments);
+        Post post = commentService.addComment(postId, currentUser.getId(), currentUser.getHandle(), currentUser.getProfilePicture(), content);
+        if (post == null) {
+            throw new RuntimeException("Post not found");
+        }
         
-        Post updatedPost = postRepository.save(post);
         logger.info("Comment added to post: {}", postId);
         
         // Create a notification for the post author (if the commenter is not the author)
@@ -497,7 +455,7 @@ public class PostController {
                 Notification notification = new Notification();
                 notification.setUserId(post.getAuthorId());
                 notification.setSenderId(currentUser.getId());
-                notification.setSenderUsername(currentUser.getUsername());
+                notification.setSenderUsername(currentUser.getHandle());
                 notification.setSenderProfilePicture(currentUser.getProfilePicture());
                 notification.setType("COMMENT");
                 notification.setResourceId(postId);
@@ -508,13 +466,14 @@ public class PostController {
                         ? currentUser.getFirstName() 
                         : currentUser.getLastName() != null 
                             ? currentUser.getLastName() 
-                            : currentUser.getUsername();
+                            : currentUser.getHandle();
                 
+                notification.setSenderName(fullName);
                 notification.setMessage(fullName + " commented on your post");
                 notification.setRead(false);
                 notification.setCreatedAt(LocalDateTime.now());
                 
-                notificationRepository.save(notification);
+                notificationDispatcher.publish(notification);
                 logger.info("Created comment notification for user: {}", post.getAuthorId());
             } catch (Exception e) {
                 logger.error("Failed to create notification", e);
@@ -522,17 +481,13 @@ public class PostController {
             }
         }
         
-        return ResponseEntity.ok(updatedPost);
+        return ResponseEntity.ok(post);
     }
     
     @PostMapping("/{postId}/share")
     public ResponseEntity<?> sharePost(@PathVariable String postId, @RequestBody(required = false) SharePostDTO sharePostDTO) {
         try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            String email = authentication.getName();
-            
-            User currentUser = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+            UserPrincipal currentUser = currentPrincipal();
             
             Post originalPost = postRepository.findById(postId)
                 .orElseThrow(() -> new RuntimeException("Post not found"));
@@ -545,7 +500,7 @@ public class PostController {
             // Create a new post as a share
             Post sharedPost = new Post();
             sharedPost.setAuthorId(currentUser.getId());
-            sharedPost.setAuthorUsername(currentUser.getUsername());
+            sharedPost.setAuthorUsername(currentUser.getHandle());
             sharedPost.setAuthorFirstName(currentUser.getFirstName());
             sharedPost.setAuthorLastName(currentUser.getLastName());
             sharedPost.setAuthorProfilePicture(currentUser.getProfilePicture());
@@ -559,13 +514,10 @@ public class PostController {
             sharedPost.setLikes(new HashSet<>());
             
             Post savedPost = postRepository.save(sharedPost);
+            timelineService.fanOut(savedPost);
             
             // Update share count on the original post
-            if (originalPost.getShares() == null) {
-                originalPost.setShares(new HashSet<>());
-            }
-            originalPost.getShares().add(currentUser.getId());
-            postRepository.save(originalPost);
+            postEngagementService.addShare(originalPost.getId(), currentUser.getId());
             
             // Send notification
             if (!originalPost.getAuthorId().equals(currentUser.getId())) {
@@ -573,7 +525,7 @@ public class PostController {
                     Notification notification = new Notification();
                     notification.setUserId(originalPost.getAuthorId());
                     notification.setSenderId(currentUser.getId());
-                    notification.setSenderUsername(currentUser.getUsername());
+                    notification.setSenderUsername(currentUser.getHandle());
                     notification.setSenderProfilePicture(currentUser.getProfilePicture());
                     notification.setType("SHARE");
                     notification.setResourceId(originalPost.getId());
@@ -584,13 +536,14 @@ public class PostController {
                             ? currentUser.getFirstName() 
                             : currentUser.getLastName() != null 
                                 ? currentUser.getLastName() 
-                                : currentUser.getUsername();
+                                : currentUser.getHandle();
                     
+                    notification.setSenderName(fullName);
                     notification.setMessage(fullName + " shared your post");
                     notification.setRead(false);
                     notification.setCreatedAt(LocalDateTime.now());
                     
-                    notificationRepository.save(notification);
+                    notificationDispatcher.publish(notification);
                     logger.info("Created share notification for user: {}", originalPost.getAuthorId());
                 } catch (Exception e) {
                     logger.error("Failed to create notification", e);
@@ -619,11 +572,7 @@ public class PostController {
             @PathVariable String postId,
             @RequestBody Map<String, Object> postData) {
         
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        
-        User currentUser = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        UserPrincipal currentUser = currentPrincipal();
         
         Optional<Post> postOptional = postRepository.findById(postId);
         
@@ -654,19 +603,16 @@ public class PostController {
             return ResponseEntity.badRequest().body(errorResponse);
         }
         
-        post.setContent(newContent);
-        
-        // Update media if provided
-        if (postData.containsKey("mediaUrl")) {
-            post.setMediaUrl((String) postData.get("mediaUrl"));
-            post.setMediaType((String) postData.get("mediaType"));
+        // Update content and media if provided, mark as edited and update timestamp
+        Post updatedPost = postEngagementService.edit(postId, currentUser.getId(), newContent,
+                postData.containsKey("mediaUrl"),
+                (String) postData.get("mediaUrl"),
+                (String) postData.get("mediaType"));
+        if (updatedPost == null) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("message", "Post not found");
+            return ResponseEntity.status(404).body(errorResponse);
         }
-        
-        // Mark as edited and update timestamp
-        post.setEdited(true);
-        post.setUpdatedAt(LocalDateTime.now());
-        
-        Post updatedPost = postRepository.save(post);
         logger.info("Post {} updated by user {}", postId, currentUser.getId());
         
         return ResponseEntity.ok(updatedPost);
@@ -0,0 +1,61 @@
+package com.skillsharing.controller;
+
+import com.skillsharing.security.PrincipalCache;
+import com.skillsharing.security.StreamTicketService;
+import com.skillsharing.security.UserPrincipal;
+import com.skillsharing.service.PushService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/stream")
+@RequiredArgsConstructor
+public class StreamController {
+
+    private final PrincipalCache principalCache;
+    private final PushService pushService;
+    private final StreamTicketService streamTicketService;
+
+    /**
+     * A single-use ticket for opening /stream or /ws/chat, valid for a few seconds. Those
+     * connections cannot carry the Authorization header, so they pass this in the ticket
+     * query parameter instead of the long-lived token.
+     */
+    @PostMapping("/ticket")
+    public ResponseEntity<Map<String, Object>> issueTicket() {
+        Optional<UserPrincipal> currentUserOpt = principalCache.current();
+        if (currentUserOpt.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("ticket", streamTicketService.issue(currentUserOpt.get().getId()));
+        response.put("expiresIn", streamTicketService.getTtlSeconds());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Server-Sent Events stream of "notification", "message" and "unread-count" events for
+     * the current user. Browsers' EventSource cannot set headers, so it authenticates with a
+     * ticket from POST /stream/ticket in the ticket query parameter.
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream() {
+        Optional<UserPrincipal> currentUserOpt = principalCache.current();
+        if (currentUserOpt.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok(pushService.subscribe(currentUserOpt.get().getId()));
+    }
+}
@@ -1,13 +1,30 @@
 package com.skillsharing.controller;
 
+import com.skillsharing.dto.NotificationPageDTO;
+import com.skillsharing.dto.SuggestionDTO;
+import com.skillsharing.dto.UserPageDTO;
 import com.skillsharing.dto.UserProfileUpdateDTO;
 import com.skillsharing.dto.UserSearchResultDTO;
 import com.skillsharing.model.User;
 import com.skillsharing.repository.UserRepository;
 import com.skillsharing.security.JwtService;
+import com.skillsharing.security.PasswordHashingOverloadedException;
+import com.skillsharing.security.PrincipalCache;
+import com.skillsharing.security.TokenRevocationService;
+import com.skillsharing.security.UserPrincipal;
+import com.skillsharing.service.FollowService;
+import com.skillsharing.service.NotificationDispatcher;
+import com.skillsharing.service.NotificationService;
+import com.skillsharing.service.SuggestionService;
+import com.skillsharing.service.TimelineService;
+import com.skillsharing.service.UnreadCounterService;
+import com.skillsharing.service.UserSearchService;
+import com.skillsharing.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -18,6 +35,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.ArrayList;
 
@@ -36,18 +54,43 @@ public class UserController {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final NotificationRepository notificationRepository;  // Add this field
+    private final TimelineService timelineService;
+    private final NotificationDispatcher notificationDispatcher;
+    private final NotificationService notificationService;
+    private final UnreadCounterService unreadCounterService;
+    private final PrincipalCache principalCache;
+    private final TokenRevocationService tokenRevocationService;
+    private final FollowService followService;
+    private final UserSearchService userSearchService;
+    private final SuggestionService suggestionService;
+    private final UserService userService;
+
+    // Password changes share the bounded hashing pool with logins; when it is saturated the client should retry
+    @ExceptionHandler(PasswordHashingOverloadedException.class)
+    public ResponseEntity<Map<String, String>> handleOverload(PasswordHashingOverloadedException e) {
+        logger.warn("Shedding password change: {}", e.getMessage());
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Server is busy, please try again shortly");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(response);
+    }
 
     @GetMapping("/profile")
     public ResponseEntity<?> getUserProfile() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
+        Optional<UserPrincipal> principal = principalCache.current();
+        if (principal.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        String userId = principal.get().getId();
         
-        logger.debug("Fetching profile for user: {}", email);
+        logger.debug("Fetching profile for user: {}", userId);
         
-        return userRepository.findByEmail(email)
+        // The full profile (bio, skills, counters) is not in the principal, so this one read stays
+        return userRepository.findById(userId)
             .map(ResponseEntity::ok)
             .orElseGet(() -> {
-                logger.error("User not found for email: {}", email);
+                logger.error("User not found for id: {}", userId);
                 return ResponseEntity.notFound().build();
             });
     }
@@ -69,6 +112,7 @@ public class UserController {
                 // Create response map
                 Map<String, Object> response = new HashMap<>();
                 boolean hasChanges = false;
+                boolean passwordChanged = false;
                 
                 // Update bio and skills
                 if (updateDTO.getBio() != null) {
@@ -125,6 +169,7 @@ public class UserController {
                     // Update password
                     user.setPassword(passwordEncoder.encode(updateDTO.getNewPassword()));
                     hasChanges = true;
+                    passwordChanged = true;
                     logger.info("Password updated for user: {}", currentEmail);
                 }
                 
@@ -144,21 +189,25 @@ public class UserController {
                 
                 if (hasChanges) {
                     logger.info("Saving changes to database for user: {}", user.getEmail());
-                    User savedUser = userRepository.save(user);
+                    User savedUser = userService.updateFields(user,
+                        "bio", "skills", "profilePicture", "email", "password", "firstName", "lastName");
+                    // Drops the entry under the old email too, since the cache is keyed by both
+                    principalCache.invalidate(savedUser);
                     logger.info("User profile successfully updated in database");
                     
-                    // Generate new token if email changed (since JWT contains the email)
-                    if (!originalEmail.equals(savedUser.getEmail())) {
-                        String newToken = jwtService.generateToken(
-                            new org.springframework.security.core.userdetails.User(
-                                savedUser.getEmail(),
-                                savedUser.getPassword(),
-                                java.util.Collections.emptyList()
-                            )
-                        );
+                    // A new password invalidates every token issued so far, including this one
+                    if (passwordChanged) {
+                        tokenRevocationService.revokeAllForSubject(originalEmail);
+                    }
+                    
+                    // Generate new token if email or password changed (since JWT contains the email)
+                    boolean emailChanged = !originalEmail.equals(savedUser.getEmail());
+                    if (emailChanged || passwordChanged) {
+                        String newToken = jwtService.generateToken(savedUser);
                         response.put("user", savedUser);
                         response.put("token", newToken);
-                        response.put("emailChanged", true);
+                        response.put("emailChanged", emailChanged);
+                        response.put("passwordChanged", passwordChanged);
                         return ResponseEntity.ok(response);
                     }
                     
@@ -174,60 +223,67 @@ public class UserController {
             });
     }
     
-    // New endpoint for searching users
+    /**
+     * Users matching every word of the query as a word prefix of their name, username or
+     * skills, best matches first. limit caps the number of results.
+     */
     @GetMapping("/search")
-    public ResponseEntity<List<UserSearchResultDTO>> searchUsers(@RequestParam String query) {
-        logger.info("Searching users with query: {}", query);
-        
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String currentUserEmail = authentication.getName();
-        Optional<User> currentUserOpt = userRepository.findByEmail(currentUserEmail);
+    public ResponseEntity<List<UserSearchResultDTO>> searchUsers(
+            @RequestParam String query,
+            @RequestParam(required = false) Integer limit) {
+        logger.debug("Searching users with query: {}", query);
         
+        Optional<UserPrincipal> currentUserOpt = principalCache.current();
         if (currentUserOpt.isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
         
-        User currentUser = currentUserOpt.get();
+        String currentUserId = currentUserOpt.get().getId();
+        List<User> searchResults = userSearchService.search(query, currentUserId, limit);
         
-        // Search using MongoDB regex for better partial matching
-        List<User> searchResults = userRepository.findByNameOrSkillsRegex(query);
+        logger.debug("Search returned {} results", searchResults.size());
         
-        logger.info("Search returned {} results", searchResults.size());
+        Set<String> followed = followService.followedAmong(currentUserId,
+            searchResults.stream().map(User::getId).collect(Collectors.toList()));
         
         List<UserSearchResultDTO> dtos = searchResults.stream()
-            .filter(user -> !user.getId().equals(currentUser.getId())) // Exclude the current user
-            .map(user -> {
-                boolean isFollowing = currentUser.getFollowing().contains(user.getId());
-                return UserSearchResultDTO.builder()
-                    .id(user.getId())
-                    .username(user.getUsername())
-                    .firstName(user.getFirstName())
-                    .lastName(user.getLastName())
-                    .fullName(user.getFullName())
-                    .profilePicture(user.getProfilePicture())
-                    .bio(user.getBio())
-                    .isFollowing(isFollowing)
-                    .build();
-            })
+            .map(user -> UserSearchResultDTO.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .fullName(user.getFullName())
+                .profilePicture(user.getProfilePicture())
+                .bio(user.getBio())
+                .isFollowing(followed.contains(user.getId()))
+                .build())
             .collect(Collectors.toList());
             
         return ResponseEntity.ok(dtos);
     }
     
+    /**
+     * Typeahead suggestions for users and skills, answered from the in-memory prefix index.
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionDTO>> suggest(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(suggestionService.suggest(q, limit));
+    }
+    
     // Follow a user - Modify to add notification and proper validation
     @PostMapping("/follow/{userId}")
     public ResponseEntity<?> followUser(@PathVariable String userId) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String currentUserEmail = authentication.getName();
-        
-        Optional<User> currentUserOpt = userRepository.findByEmail(currentUserEmail);
+        // The notification needs the follower's names and picture
+        Optional<UserPrincipal> currentUserOpt = principalCache.currentProfile();
         Optional<User> targetUserOpt = userRepository.findById(userId);
         
         if (currentUserOpt.isEmpty() || targetUserOpt.isEmpty()) {
             return ResponseEntity.badRequest().body("User not found");
         }
         
-        User currentUser = currentUserOpt.get();
+        UserPrincipal currentUser = currentUserOpt.get();
         User targetUser = targetUserOpt.get();
         
         // Cannot follow yourself
@@ -235,25 +291,22 @@ public class UserController {
             return ResponseEntity.badRequest().body("Cannot follow yourself");
         }
         
-        // Check if already following - don't allow duplicate follows
-        if (currentUser.getFollowing().contains(targetUser.getId())) {
-            return ResponseEntity.badRequest().body("Already following this user");
+        // Following twice is a no-op: no second edge, counter bump or notification
+        if (!followService.follow(currentUser.getId(), targetUser.getId())) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Already following " + targetUser.getUsername());
+            return ResponseEntity.ok(response);
         }
         
-        // Add to following set of current user
-        currentUser.getFollowing().add(targetUser.getId());
-        userRepository.save(currentUser);
-        
-        // Add to followers set of target user
-        targetUser.getFollowers().add(currentUser.getId());
-        userRepository.save(targetUser);
+        timelineService.onFollow(currentUser.getId(), targetUser);
         
         // Create the notification with full name
         try {
             Notification notification = new Notification();
             notification.setUserId(targetUser.getId());
             notification.setSenderId(currentUser.getId());
-            notification.setSenderUsername(currentUser.getUsername());
+            notification.setSenderUsername(currentUser.getHandle());
             notification.setSenderProfilePicture(currentUser.getProfilePicture());
             notification.setType("FOLLOW");
             
@@ -264,13 +317,14 @@ public class UserController {
                     ? currentUser.getFirstName() 
                     : currentUser.getLastName() != null 
                         ? currentUser.getLastName() 
-                        : currentUser.getUsername();
+                        : currentUser.getHandle();
             
+            notification.setSenderName(fullName);
             notification.setMessage(fullName + " started following you");
             notification.setRead(false);
             notification.setCreatedAt(LocalDateTime.now());
             
-            notificationRepository.save(notification);
+            notificationDispatcher.publish(notification);
             logger.info("Created follow notification for user: {}", targetUser.getId());
         } catch (Exception e) {
             logger.error("Failed to create notification", e);
@@ -287,32 +341,21 @@ public class UserController {
     // Unfollow a user - Add proper validation
     @PostMapping("/unfollow/{userId}")
     public ResponseEntity<?> unfollowUser(@PathVariable String userId) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String currentUserEmail = authentication.getName();
-        
-        Optional<User> currentUserOpt = userRepository.findByEmail(currentUserEmail);
+        Optional<UserPrincipal> currentUserOpt = principalCache.current();
         Optional<User> targetUserOpt = userRepository.findById(userId);
         
         if (currentUserOpt.isEmpty() || targetUserOpt.isEmpty()) {
             return ResponseEntity.badRequest().body("User not found");
         }
         
-        User currentUser = currentUserOpt.get();
+        UserPrincipal currentUser = currentUserOpt.get();
         User targetUser = targetUserOpt.get();
         
-        // Check if actually following before removing
-        if (!currentUser.getFollowing().contains(targetUser.getId())) {
-            return ResponseEntity.badRequest().body("You are not following this user");
+        // Unfollowing an account that is not followed leaves everything as it is
+        if (followService.unfollow(currentUser.getId(), targetUser.getId())) {
+            timelineService.onUnfollow(currentUser.getId(), targetUser.getId());
         }
         
-        // Remove from following set of current user
-        currentUser.getFollowing().remove(targetUser.getId());
-        userRepository.save(currentUser);
-        
-        // Remove from followers set of target user
-        targetUser.getFollowers().remove(currentUser.getId());
-        userRepository.save(targetUser);
-        
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
         response.put("message", "No longer following " + targetUser.getUsername());
@@ -320,112 +363,84 @@ public class UserController {
         return ResponseEntity.ok(response);
     }
     
-    // Get followers list with details
+    /**
+     * Followers of a user. Passing a cursor or limit returns one page with a nextCursor;
+     * without either the whole list is returned as before, resolved in batches.
+     */
     @GetMapping("/followers/{userId}")
-    public ResponseEntity<List<UserSearchResultDTO>> getFollowers(@PathVariable String userId) {
+    public ResponseEntity<?> getFollowers(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         logger.debug("Fetching followers for user ID: {}", userId);
-        
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String currentUserEmail = authentication.getName();
-        Optional<User> currentUserOpt = userRepository.findByEmail(currentUserEmail);
-        
-        if (currentUserOpt.isEmpty()) {
-            return ResponseEntity.badRequest().build();
-        }
-        
-        User currentUser = currentUserOpt.get();
-        Optional<User> targetUserOpt = userRepository.findById(userId);
-        
-        if (targetUserOpt.isEmpty()) {
-            return ResponseEntity.notFound().build();
-        }
-        
-        User targetUser = targetUserOpt.get();
-        List<User> followers = new ArrayList<>();
-        
-        // Fetch all follower details
-        for (String followerId : targetUser.getFollowers()) {
-            userRepository.findById(followerId).ifPresent(followers::add);
-        }
-        
-        List<UserSearchResultDTO> dtos = followers.stream()
-            .map(user -> {
-                boolean isFollowing = currentUser.getFollowing().contains(user.getId());
-                return UserSearchResultDTO.builder()
-                    .id(user.getId())
-                    .username(user.getUsername())
-                    .firstName(user.getFirstName())
-                    .lastName(user.getLastName())
-                    .fullName(user.getFullName())
-                    .profilePicture(user.getProfilePicture())
-                    .bio(user.getBio())
-                    .isFollowing(isFollowing)
-                    .build();
-            })
-            .collect(Collectors.toList());
-            
-        return ResponseEntity.ok(dtos);
+        return followList(userId, true, cursor, limit);
     }
 
-    // Get following list with details
+    /**
+     * Accounts a user follows, paged the same way as the followers list.
+     */
     @GetMapping("/following/{userId}")
-    public ResponseEntity<List<UserSearchResultDTO>> getFollowing(@PathVariable String userId) {
+    public ResponseEntity<?> getFollowing(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         logger.debug("Fetching following for user ID: {}", userId);
-        
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String currentUserEmail = authentication.getName();
-        Optional<User> currentUserOpt = userRepository.findByEmail(currentUserEmail);
-        
+        return followList(userId, false, cursor, limit);
+    }
+    
+    private ResponseEntity<?> followList(String userId, boolean followers, String cursor, Integer limit) {
+        Optional<UserPrincipal> currentUserOpt = principalCache.current();
         if (currentUserOpt.isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
         
-        User currentUser = currentUserOpt.get();
-        Optional<User> targetUserOpt = userRepository.findById(userId);
-        
-        if (targetUserOpt.isEmpty()) {
+        if (!userRepository.existsById(userId)) {
             return ResponseEntity.notFound().build();
         }
         
-        User targetUser = targetUserOpt.get();
-        List<User> following = new ArrayList<>();
-        
-        // Fetch all following details
-        for (String followingId : targetUser.getFollowing()) {
-            userRepository.findById(followingId).ifPresent(following::add);
+        String viewerId = currentUserOpt.get().getId();
+        if (cursor != null || limit != null) {
+            try {
+                UserPageDTO page = followService.getPage(userId, followers, viewerId, cursor, limit);
+                return ResponseEntity.ok(page);
+            } catch (IllegalArgumentException e) {
+                Map<String, String> errorResponse = new HashMap<>();
+                errorResponse.put("message", e.getMessage());
+                return ResponseEntity.badRequest().body(errorResponse);
+            }
         }
-        
-        List<UserSearchResultDTO> dtos = following.stream()
-            .map(user -> {
-                boolean isFollowing = currentUser.getFollowing().contains(user.getId());
-                return UserSearchResultDTO.builder()
-                    .id(user.getId())
-                    .username(user.getUsername())
-                    .firstName(user.getFirstName())
-                    .lastName(user.getLastName())
-                    .fullName(user.getFullName())
-                    .profilePicture(user.getProfilePicture())
-                    .bio(user.getBio())
-                    .isFollowing(true) // They are all following since this is the following list
-                    .build();
-            })
-            .collect(Collectors.toList());
-            
-        return ResponseEntity.ok(dtos);
+        return ResponseEntity.ok(followService.getAll(userId, followers, viewerId));
     }
     
-    // Get user's notifications
+    /**
+     * User's notifications. Passing a cursor, after, limit or unreadOnly switches to keyset
+     * pagination and returns a page; without any of them the full list is returned as before.
+     */
     @GetMapping("/notifications")
-    public ResponseEntity<List<Notification>> getNotifications() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String currentUserEmail = authentication.getName();
-        
-        Optional<User> currentUserOpt = userRepository.findByEmail(currentUserEmail);
+    public ResponseEntity<?> getNotifications(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Boolean unreadOnly) {
+        Optional<UserPrincipal> currentUserOpt = principalCache.current();
         if (currentUserOpt.isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
         
-        User currentUser = currentUserOpt.get();
+        UserPrincipal currentUser = currentUserOpt.get();
+        
+        if (cursor != null || after != null || limit != null || unreadOnly != null) {
+            try {
+                NotificationPageDTO page = notificationService.getNotifications(
+                    currentUser.getId(), cursor, after, limit, Boolean.TRUE.equals(unreadOnly));
+                return ResponseEntity.ok(page);
+            } catch (IllegalArgumentException e) {
+                Map<String, String> errorResponse = new HashMap<>();
+                errorResponse.put("message", e.getMessage());
+                return ResponseEntity.badRequest().body(errorResponse);
+            }
+        }
+        
         List<Notification> notifications = notificationRepository.findByUserIdOrderByCreatedAtDesc(currentUser.getId());
         
         return ResponseEntity.ok(notifications);
@@ -434,16 +449,13 @@ public class UserController {
     // Get unread notification count
     @GetMapping("/notifications/count")
     public ResponseEntity<Map<String, Long>> getUnreadNotificationCount() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String currentUserEmail = authentication.getName();
-        
-        Optional<User> currentUserOpt = userRepository.findByEmail(currentUserEmail);
+        Optional<UserPrincipal> currentUserOpt = principalCache.current();
         if (currentUserOpt.isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
         
-        User currentUser = currentUserOpt.get();
-        long count = notificationRepository.countByUserIdAndRead(currentUser.getId(), false);
+        UserPrincipal currentUser = currentUserOpt.get();
+        long count = unreadCounterService.getUnreadNotifications(currentUser.getId());
         
         Map<String, Long> response = new HashMap<>();
         response.put("count", count);
@@ -454,67 +466,53 @@ public class UserController {
     // Mark notifications as read
     @PostMapping("/notifications/mark-read")
     public ResponseEntity<?> markNotificationsAsRead(@RequestBody List<String> notificationIds) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String currentUserEmail = authentication.getName();
-        
-        Optional<User> currentUserOpt = userRepository.findByEmail(currentUserEmail);
+        Optional<UserPrincipal> currentUserOpt = principalCache.current();
         if (currentUserOpt.isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
         
-        User currentUser = currentUserOpt.get();
+        UserPrincipal currentUser = currentUserOpt.get();
         
-        List<Notification> notifications = notificationRepository.findAllById(notificationIds);
-        for (Notification notification : notifications) {
-            // Only allow marking notifications as read if they belong to the current user
-            if (notification.getUserId().equals(currentUser.getId())) {
-                notification.setRead(true);
-                notificationRepository.save(notification);
-            }
-        }
+        // Only notifications belonging to the current user are updated
+        long updated = notificationService.markAsRead(currentUser.getId(), notificationIds);
         
-        return ResponseEntity.ok().build();
+        Map<String, Long> response = new HashMap<>();
+        response.put("updated", updated);
+        return ResponseEntity.ok(response);
     }
     
     // Mark all notifications as read
     @PostMapping("/notifications/mark-all-read")
     public ResponseEntity<?> markAllNotificationsAsRead() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String currentUserEmail = authentication.getName();
-        
-        Optional<User> currentUserOpt = userRepository.findByEmail(currentUserEmail);
+        Optional<UserPrincipal> currentUserOpt = principalCache.current();
         if (currentUserOpt.isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
         
-        User currentUser = currentUserOpt.get();
+        UserPrincipal currentUser = currentUserOpt.get();
         
-        List<Notification> notifications = notificationRepository.findByUserIdAndReadOrderByCreatedAtDesc(currentUser.getId(), false);
-        for (Notification notification : notifications) {
-            notification.setRead(true);
-            notificationRepository.save(notification);
-        }
+        long updated = notificationService.markAllAsRead(currentUser.getId());
         
-        return ResponseEntity.ok().build();
+        Map<String, Long> response = new HashMap<>();
+        response.put("updated", updated);
+        return ResponseEntity.ok(response);
     }
     
     // Clear all notifications
     @DeleteMapping("/notifications/clear-all")
     public ResponseEntity<?> clearAllNotifications() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String currentUserEmail = authentication.getName();
-        
-        Optional<User> currentUserOpt = userRepository.findByEmail(currentUserEmail);
+        Optional<UserPrincipal> currentUserOpt = principalCache.current();
         if (currentUserOpt.isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
         
-        User currentUser = currentUserOpt.get();
+        UserPrincipal currentUser = currentUserOpt.get();
         
-        List<Notification> notifications = notificationRepository.findByUserIdOrderByCreatedAtDesc(currentUser.getId());
-        notificationRepository.deleteAll(notifications);
+        long deleted = notificationService.clearAll(currentUser.getId());
         
-        return ResponseEntity.ok().build();
+        Map<String, Long> response = new HashMap<>();
+        response.put("deleted", deleted);
+        return ResponseEntity.ok(response);
     }
     
     // Add this new endpoint to get a user by ID
@@ -522,15 +520,13 @@ public class UserController {
     public ResponseEntity<UserSearchResultDTO> getUserById(@PathVariable String userId) {
         logger.debug("Fetching user by ID: {}", userId);
         
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String currentUserEmail = authentication.getName();
-        Optional<User> currentUserOpt = userRepository.findByEmail(currentUserEmail);
+        Optional<UserPrincipal> currentUserOpt = principalCache.current();
         
         if (currentUserOpt.isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
         
-        User currentUser = currentUserOpt.get();
+        UserPrincipal currentUser = currentUserOpt.get();
         Optional<User> targetUserOpt = userRepository.findById(userId);
         
         if (targetUserOpt.isEmpty()) {
@@ -538,7 +534,7 @@ public class UserController {
         }
         
         User targetUser = targetUserOpt.get();
-        boolean isFollowing = currentUser.getFollowing().contains(targetUser.getId());
+        boolean isFollowing = followService.isFollowing(currentUser.getId(), targetUser.getId());
         
         UserSearchResultDTO dto = UserSearchResultDTO.builder()
             .id(targetUser.getId())
@@ -549,6 +545,8 @@ public class UserController {
             .profilePicture(targetUser.getProfilePicture())
             .bio(targetUser.getBio())
             .isFollowing(isFollowing)
+            .followerCount(targetUser.getFollowerCount())
+            .followingCount(targetUser.getFollowingCount())
             .build();
             
         return ResponseEntity.ok(dto);
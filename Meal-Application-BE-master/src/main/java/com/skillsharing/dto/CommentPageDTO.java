@@ -0,0 +1,25 @@
+package com.skillsharing.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.skillsharing.model.PostComment;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommentPageDTO {
+    // Newest first; follow nextCursor for older comments
+    @Builder.Default
+    private List<PostComment> comments = new ArrayList<>();
+    
+    private String nextCursor;
+    private boolean hasMore;
+    private long totalCount;
+}
@@ -1,5 +1,6 @@
 package com.skillsharing.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.skillsharing.model.CommunityChallenge;
 
 import java.time.LocalDateTime;
@@ -23,6 +24,9 @@ public class CommunityChallengeDTO {
     private int submissionCount;
     private boolean isParticipant;
     private String status; // "active", "upcoming", or "completed"
+    // Only on join responses: whether this call added the user (false when they were already taking part)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean changed;
     
     // Default constructor
     public CommunityChallengeDTO() {
@@ -40,7 +44,7 @@ public class CommunityChallengeDTO {
         this.endDate = challenge.getEndDate();
         this.participants = challenge.getParticipants();
         this.submissions = challenge.getSubmissions();
-        this.participantCount = challenge.getParticipants().size();
+        this.participantCount = challenge.getParticipantCount();
         this.submissionCount = challenge.getSubmissions().size();
         
         // Determine challenge status
@@ -175,6 +179,14 @@ public class CommunityChallengeDTO {
         this.isParticipant = isParticipant;
     }
 
+    public Boolean getChanged() {
+        return changed;
+    }
+
+    public void setChanged(Boolean changed) {
+        this.changed = changed;
+    }
+
     public String getStatus() {
         return status;
     }
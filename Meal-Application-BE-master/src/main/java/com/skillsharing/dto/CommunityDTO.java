@@ -1,5 +1,6 @@
 package com.skillsharing.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.skillsharing.model.Community;
 
 import java.time.LocalDateTime;
@@ -23,6 +24,9 @@ public class CommunityDTO {
     private int postCount;
     private boolean isMember;
     private boolean isModerator;
+    // Only on join responses: whether this call added the user (false when they were already a member)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean changed;
     
     // Default constructor
     public CommunityDTO() {
@@ -41,8 +45,8 @@ public class CommunityDTO {
         this.moderators = community.getModerators();
         this.posts = community.getPosts();
         this.isPrivate = community.isPrivate();
-        this.memberCount = community.getMembers().size();
-        this.postCount = community.getPosts().size();
+        this.memberCount = community.getMemberCount();
+        this.postCount = community.getPostCount();
     }
     
     // Getters and Setters
@@ -173,4 +177,12 @@ public class CommunityDTO {
     public void setModerator(boolean isModerator) {
         this.isModerator = isModerator;
     }
+
+    public Boolean getChanged() {
+        return changed;
+    }
+
+    public void setChanged(Boolean changed) {
+        this.changed = changed;
+    }
 }
@@ -0,0 +1,22 @@
+package com.skillsharing.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommunityPageDTO {
+    @Builder.Default
+    private List<CommunityDTO> communities = new ArrayList<>();
+
+    private int page;
+    private int size;
+    private boolean hasMore;
+}
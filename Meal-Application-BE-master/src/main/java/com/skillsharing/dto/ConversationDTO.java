@@ -0,0 +1,23 @@
+package com.skillsharing.dto;
+
+import com.skillsharing.model.Message;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One inbox entry: the other participant plus the latest message and the current user's unread count
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConversationDTO {
+    private String userId;
+    private String username;
+    private String firstName;
+    private String lastName;
+    private String profilePicture;
+    private Message latestMessage;
+    private long unreadCount;
+}
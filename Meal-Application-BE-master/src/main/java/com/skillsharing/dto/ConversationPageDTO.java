@@ -0,0 +1,22 @@
+package com.skillsharing.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConversationPageDTO {
+    // Most recently active first
+    @Builder.Default
+    private List<ConversationDTO> conversations = new ArrayList<>();
+
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,24 @@
+package com.skillsharing.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.skillsharing.model.Post;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeedPageDTO {
+    @Builder.Default
+    private List<Post> posts = new ArrayList<>();
+
+    // Opaque cursor for the next page, null when there are no more posts
+    private String nextCursor;
+    private boolean hasMore;
+}
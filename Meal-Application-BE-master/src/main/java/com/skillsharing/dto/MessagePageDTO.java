@@ -0,0 +1,24 @@
+package com.skillsharing.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.skillsharing.model.Message;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessagePageDTO {
+    // Oldest first, as they are displayed; follow nextCursor for earlier messages
+    @Builder.Default
+    private List<Message> messages = new ArrayList<>();
+
+    private String nextCursor;
+    private boolean hasMore;
+}
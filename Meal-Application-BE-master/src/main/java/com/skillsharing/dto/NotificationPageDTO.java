@@ -0,0 +1,28 @@
+package com.skillsharing.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.skillsharing.model.Notification;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationPageDTO {
+    // Newest first
+    @Builder.Default
+    private List<Notification> notifications = new ArrayList<>();
+
+    // Cursor for older notifications, null when there are none
+    private String nextCursor;
+    private boolean hasMore;
+
+    // Cursor of the newest notification seen so far; pass it as "after" to poll for new ones
+    private String latestCursor;
+}
@@ -0,0 +1,19 @@
+package com.skillsharing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One typeahead suggestion: a user (id, username and picture set) or a skill (label only)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionDTO {
+    private String type;    // USER or SKILL
+    private String id;
+    private String label;
+    private String username;
+    private String profilePicture;
+}
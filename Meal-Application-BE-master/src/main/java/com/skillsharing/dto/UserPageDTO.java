@@ -0,0 +1,22 @@
+package com.skillsharing.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPageDTO {
+    @Builder.Default
+    private List<UserSearchResultDTO> users = new ArrayList<>();
+
+    // Opaque cursor for the next page, null when there are no more users
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -18,4 +18,8 @@ public class UserSearchResultDTO {
     private String profilePicture;
     private String bio;
     private boolean isFollowing;
+
+    // Only filled in on the single-user lookup
+    private Integer followerCount;
+    private Integer followingCount;
 }
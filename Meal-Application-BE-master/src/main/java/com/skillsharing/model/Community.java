@@ -1,7 +1,11 @@
 package com.skillsharing.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.ReadOnlyProperty;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -9,21 +13,36 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Document(collection = "communities")
+@CompoundIndexes({
+    @CompoundIndex(name = "created_idx", def = "{'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "category_created_idx", def = "{'category': 1, 'createdAt': -1, '_id': -1}")
+})
 public class Community {
     @Id
     private String id;
     
+    // Text index weights: a match in the name counts most, then the category, then the description
     @Indexed
+    @TextIndexed(weight = 10)
     private String name;
     
+    @TextIndexed
     private String description;
+    @TextIndexed(weight = 5)
     private String category; // e.g., "baking", "vegan cooking", "international cuisine", "weeknight dinners"
     private String creatorId;
     private LocalDateTime createdAt;
     private String coverImage;
+    @Indexed
     private Set<String> members = new HashSet<>(); // User IDs of members
+    // Maintained with $inc by CommunityService; save() never writes it, so a stale copy cannot reset it
+    @ReadOnlyProperty
+    private int memberCount;
     private Set<String> moderators = new HashSet<>(); // User IDs of moderators
     private Set<String> posts = new HashSet<>(); // Post IDs associated with this community
+    // Kept next to the posts set so lists, which never load the set, can still show the count
+    @ReadOnlyProperty
+    private int postCount;
     private boolean isPrivate = false;
     
     public Community() {
@@ -106,6 +125,22 @@ public class Community {
         this.members = members;
     }
 
+    public int getMemberCount() {
+        return memberCount;
+    }
+
+    public void setMemberCount(int memberCount) {
+        this.memberCount = memberCount;
+    }
+
+    public int getPostCount() {
+        return postCount;
+    }
+
+    public void setPostCount(int postCount) {
+        this.postCount = postCount;
+    }
+
     public Set<String> getModerators() {
         return moderators;
     }
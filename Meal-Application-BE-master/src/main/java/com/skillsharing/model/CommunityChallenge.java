@@ -1,6 +1,7 @@
 package com.skillsharing.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.ReadOnlyProperty;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -20,6 +21,9 @@ public class CommunityChallenge {
     private LocalDateTime startDate;
     private LocalDateTime endDate;
     private Set<String> participants = new HashSet<>(); // User IDs of participants
+    // Maintained with $inc by CommunityChallengeService; save() never writes it
+    @ReadOnlyProperty
+    private int participantCount;
     private Set<String> submissions = new HashSet<>(); // Post IDs of challenge submissions
     
     public CommunityChallenge() {
@@ -111,6 +115,14 @@ public class CommunityChallenge {
         this.participants = participants;
     }
 
+    public int getParticipantCount() {
+        return participantCount;
+    }
+
+    public void setParticipantCount(int participantCount) {
+        this.participantCount = participantCount;
+    }
+
     public Set<String> getSubmissions() {
         return submissions;
     }
@@ -0,0 +1,39 @@
+package com.skillsharing.model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Summary of the messages exchanged by two users, kept up to date as messages are sent and read
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "conversations")
+@CompoundIndex(name = "participant_activity_idx", def = "{'participants': 1, 'lastMessageAt': -1, '_id': -1}")
+public class Conversation {
+    // Pair key of the two participant ids, see ConversationService.pairKey
+    @Id
+    private String id;
+
+    @Builder.Default
+    private List<String> participants = new ArrayList<>();
+
+    private Message lastMessage;
+    private LocalDateTime lastMessageAt;
+
+    // Unread messages per participant id
+    @Builder.Default
+    private Map<String, Long> unreadCounts = new HashMap<>();
+}
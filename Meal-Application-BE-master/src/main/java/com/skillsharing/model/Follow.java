@@ -0,0 +1,33 @@
+package com.skillsharing.model;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One edge of the follow graph: followerId follows followeeId
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "follows")
+@CompoundIndexes({
+    @CompoundIndex(name = "follower_followee_idx", def = "{'followerId': 1, 'followeeId': 1}", unique = true),
+    @CompoundIndex(name = "follower_created_idx", def = "{'followerId': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "followee_created_idx", def = "{'followeeId': 1, 'createdAt': -1, '_id': -1}")
+})
+public class Follow {
+    @Id
+    private String id;
+
+    private String followerId;
+    private String followeeId;
+    private LocalDateTime createdAt;
+}
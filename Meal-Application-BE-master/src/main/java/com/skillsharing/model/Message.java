@@ -3,17 +3,25 @@ package com.skillsharing.model;
 import lombok.Data;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 
 @Data
 @Document(collection = "messages")
+@CompoundIndexes({
+    @CompoundIndex(name = "pair_created_idx", def = "{'pairKey': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "receiver_read_idx", def = "{'receiverId': 1, 'read': 1}")
+})
 public class Message {
     @Id
     private String id;
     private String senderId;
     private String receiverId;
+    // Same for both directions of a conversation, see ConversationService.pairKey
+    private String pairKey;
     private String content;
     private boolean read;
     @CreatedDate
@@ -1,11 +1,24 @@
 package com.skillsharing.model;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 @Document(collection = "notifications")
+@CompoundIndexes({
+    @CompoundIndex(name = "user_created_idx", def = "{'userId': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "user_read_created_idx", def = "{'userId': 1, 'read': 1, 'createdAt': -1, '_id': -1}")
+})
 public class Notification {
     @Id
     private String id;
@@ -13,11 +26,24 @@ public class Notification {
     private String senderId;
     private String senderUsername;
     private String senderProfilePicture;
+    private String senderName;
     private String type;
     private String message;
     private String resourceId;
     private boolean read;
     private LocalDateTime createdAt;
+    
+    // Coalesced notifications: one document per (userId, type, resourceId, time window)
+    @JsonIgnore
+    @Indexed(unique = true, sparse = true)
+    private String groupKey;
+    private int actorCount;
+    // Set once actors stopped being tracked; actorCount is then a lower bound
+    private boolean actorCountApproximate;
+    private List<Actor> recentActors = new ArrayList<>();
+    // First actors of the group, capped by NotificationCoalescer; never loaded by the list queries
+    @JsonIgnore
+    private Set<String> actorIds = new LinkedHashSet<>();
 
     // Getters and Setters
     public String getId() {
@@ -60,6 +86,14 @@ public class Notification {
         this.senderProfilePicture = senderProfilePicture;
     }
 
+    public String getSenderName() {
+        return senderName;
+    }
+
+    public void setSenderName(String senderName) {
+        this.senderName = senderName;
+    }
+
     public String getType() {
         return type;
     }
@@ -99,4 +133,84 @@ public class Notification {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
+
+    public String getGroupKey() {
+        return groupKey;
+    }
+
+    public void setGroupKey(String groupKey) {
+        this.groupKey = groupKey;
+    }
+
+    public int getActorCount() {
+        return actorCount;
+    }
+
+    public void setActorCount(int actorCount) {
+        this.actorCount = actorCount;
+    }
+
+    public boolean isActorCountApproximate() {
+        return actorCountApproximate;
+    }
+
+    public void setActorCountApproximate(boolean actorCountApproximate) {
+        this.actorCountApproximate = actorCountApproximate;
+    }
+
+    public List<Actor> getRecentActors() {
+        return recentActors;
+    }
+
+    public void setRecentActors(List<Actor> recentActors) {
+        this.recentActors = recentActors;
+    }
+
+    public Set<String> getActorIds() {
+        return actorIds;
+    }
+
+    public void setActorIds(Set<String> actorIds) {
+        this.actorIds = actorIds;
+    }
+
+    // A user who contributed to a coalesced notification
+    public static class Actor {
+        private String id;
+        private String username;
+        private String name;
+        private String profilePicture;
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getProfilePicture() {
+            return profilePicture;
+        }
+
+        public void setProfilePicture(String profilePicture) {
+            this.profilePicture = profilePicture;
+        }
+    }
 }
\ No newline at end of file
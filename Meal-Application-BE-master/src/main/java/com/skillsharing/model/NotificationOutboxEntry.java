@@ -0,0 +1,25 @@
+package com.skillsharing.model;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A notification accepted by the dispatcher but not yet written to the notifications collection
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "notification_outbox")
+public class NotificationOutboxEntry {
+    @Id
+    private String id;  // Same id as the notification it carries
+    
+    private Notification notification;
+    private LocalDateTime createdAt;
+}
@@ -7,6 +7,7 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -20,6 +21,7 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "posts")
+@CompoundIndex(name = "author_created_idx", def = "{'authorId': 1, 'createdAt': -1, '_id': -1}")
 public class Post {
     @Id
     private String id;
@@ -37,9 +39,15 @@ public class Post {
     @Builder.Default
     private Set<String> likes = new HashSet<>();
     
+    // Kept in step with likes by the atomic like/unlike updates
+    private int likeCount;
+    
+    // Preview of the latest comments only; the full list lives in the comments collection
     @Builder.Default
     private List<Comment> comments = new ArrayList<>();
     
+    private int commentCount;
+    
     @CreatedDate
     private LocalDateTime createdAt;
     
@@ -0,0 +1,60 @@
+package com.skillsharing.model;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A comment stored in its own collection; posts only embed a short preview (Post.Comment)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "comments")
+@CompoundIndex(name = "post_created_idx", def = "{'postId': 1, 'createdAt': -1, '_id': -1}")
+public class PostComment {
+    @Id
+    private String id;
+    
+    private String postId;
+    private String userId;
+    private String username;
+    private String userProfilePicture;
+    private String content;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private boolean edited;
+    
+    public Post.Comment toPreview() {
+        return Post.Comment.builder()
+            .id(id)
+            .userId(userId)
+            .username(username)
+            .userProfilePicture(userProfilePicture)
+            .content(content)
+            .createdAt(createdAt)
+            .updatedAt(updatedAt)
+            .edited(edited)
+            .build();
+    }
+    
+    public static PostComment fromPreview(String postId, Post.Comment comment) {
+        return PostComment.builder()
+            .id(comment.getId())
+            .postId(postId)
+            .userId(comment.getUserId())
+            .username(comment.getUsername())
+            .userProfilePicture(comment.getUserProfilePicture())
+            .content(comment.getContent())
+            .createdAt(comment.getCreatedAt())
+            .updatedAt(comment.getUpdatedAt())
+            .edited(comment.isEdited())
+            .build();
+    }
+}
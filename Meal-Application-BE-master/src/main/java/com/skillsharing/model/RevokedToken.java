@@ -0,0 +1,33 @@
+package com.skillsharing.model;
+
+import java.time.Instant;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A revoked token (id is its jti) or, for subject-wide revocations such as a password
+ * change, every token of a subject issued before notBefore (id is "sub:" plus the email).
+ * Mongo removes the entry once every token it covers has expired anyway.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "revoked_tokens")
+public class RevokedToken {
+    @Id
+    private String id;
+
+    private String subject;
+    private Instant notBefore;
+
+    @Indexed(expireAfterSeconds = 0)
+    private Instant expiresAt;
+}
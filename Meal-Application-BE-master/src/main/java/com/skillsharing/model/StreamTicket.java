@@ -0,0 +1,32 @@
+package com.skillsharing.model;
+
+import java.time.Instant;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A short-lived, single-use credential for the connections that cannot send an Authorization
+ * header (/stream and /ws/chat). The id is the ticket itself; redeeming it deletes the entry,
+ * and Mongo removes the ones that were never redeemed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "stream_tickets")
+public class StreamTicket {
+    @Id
+    private String id;
+
+    private String userId;
+
+    @Indexed(expireAfterSeconds = 0)
+    private Instant expiresAt;
+}
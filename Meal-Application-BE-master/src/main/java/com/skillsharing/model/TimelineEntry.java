@@ -0,0 +1,41 @@
+package com.skillsharing.model;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One post reference in a user's precomputed home timeline
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "timelines")
+@CompoundIndexes({
+    @CompoundIndex(name = "owner_created_idx", def = "{'ownerId': 1, 'createdAt': -1, 'postId': -1}"),
+    @CompoundIndex(name = "owner_post_idx", def = "{'ownerId': 1, 'postId': 1}", unique = true),
+    @CompoundIndex(name = "post_idx", def = "{'postId': 1}")
+})
+public class TimelineEntry {
+    @Id
+    private String id;
+
+    private String ownerId;   // User whose timeline this entry belongs to
+    private String postId;
+    private String authorId;
+
+    // Copied from the post so the timeline can be range-scanned without a join
+    private LocalDateTime createdAt;
+
+    // When the entry was written; entries expire 30 days later and older posts are read from posts instead
+    @Indexed(name = "inserted_ttl_idx", expireAfter = "30d")
+    private LocalDateTime insertedAt;
+}
@@ -1,17 +1,25 @@
 package com.skillsharing.model;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.ReadOnlyProperty;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import lombok.Data;
 
 @Data
 @Document(collection = "users")
+@CompoundIndex(name = "search_terms_idx", def = "{'searchTerms': 1, 'followerCount': -1}")
 public class User {
     @Id
     private String id;
@@ -30,9 +38,23 @@ public class User {
     private Set<String> skills = new HashSet<>();
     private String profilePicture;
     private String bio;
-    private Set<String> followers = new HashSet<>();
-    private Set<String> following = new HashSet<>();
+
+    // Maintained with $inc by FollowService; save() never writes them, so a stale copy cannot reset them
+    @ReadOnlyProperty
+    private int followerCount;
+    @ReadOnlyProperty
+    private int followingCount;
+
     private boolean enabled = true;
+
+    // Last write to the profile or the counters; SuggestionService refreshes users changed since its last pass
+    @JsonIgnore
+    @Indexed
+    private LocalDateTime updatedAt;
+
+    // Word prefixes of the name, username and skills; set on every save by UserSearchTermsCallback
+    @JsonIgnore
+    private List<String> searchTerms = new ArrayList<>();
     
     // Learning streak fields
     private int currentStreak = 0;
@@ -3,10 +3,13 @@ package com.skillsharing.repository;
 import java.util.List;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 
 import com.skillsharing.model.Notification;
 
 public interface NotificationRepository extends MongoRepository<Notification, String> {
+    // Without the coalesced actor ids, which are only needed by the upsert
+    @Query(value = "{ 'userId': ?0 }", fields = "{ 'actorIds': 0 }", sort = "{ 'createdAt': -1 }")
     List<Notification> findByUserIdOrderByCreatedAtDesc(String userId);
     List<Notification> findByUserIdAndReadOrderByCreatedAtDesc(String userId, boolean read);
     long countByUserIdAndRead(String userId, boolean read);
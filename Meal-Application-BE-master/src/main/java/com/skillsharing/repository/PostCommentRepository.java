@@ -0,0 +1,17 @@
+package com.skillsharing.repository;
+
+import java.util.Collection;
+import java.util.Optional;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import com.skillsharing.model.PostComment;
+
+public interface PostCommentRepository extends MongoRepository<PostComment, String> {
+    Optional<PostComment> findByIdAndPostId(String id, String postId);
+    
+    long countByPostId(String postId);
+    
+    // Remove every comment of the given posts (used when posts are deleted)
+    void deleteByPostIdIn(Collection<String> postIds);
+}
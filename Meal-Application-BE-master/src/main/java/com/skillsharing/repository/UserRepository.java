@@ -30,12 +30,4 @@ public interface UserRepository extends MongoRepository<User, String> {
     // Find users by either username or skills
     @Query("{ $or: [ { 'username': { $regex: ?0, $options: 'i' } }, { 'skills': { $regex: ?0, $options: 'i' } } ] }")
     List<User> findByUsernameOrSkillsRegex(String regex);
-    
-    // Find users by name (first name, last name, or username)
-    @Query("{ $or: [ " + 
-           "{ 'firstName': { $regex: ?0, $options: 'i' } }, " +
-           "{ 'lastName': { $regex: ?0, $options: 'i' } }, " +
-           "{ 'username': { $regex: ?0, $options: 'i' } }, " +
-           "{ 'skills': { $regex: ?0, $options: 'i' } } ] }")
-    List<User> findByNameOrSkillsRegex(String regex);
 }
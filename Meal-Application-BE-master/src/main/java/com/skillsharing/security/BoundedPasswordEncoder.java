@@ -0,0 +1,186 @@
+package com.skillsharing.security;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * BCrypt on a dedicated, bounded pool so login bursts cannot tie up every request thread.
+ *
+ * Hashing and verification run on a fixed number of threads, one per CPU core unless
+ * configured, behind a short queue. BCrypt cannot be interrupted, so a hash that has started
+ * always runs to the end. Work is therefore shed with PasswordHashingOverloadedException
+ * before it starts: on submit, when the queue is full or the wait estimated from the
+ * measured hash time exceeds the limit, and on dequeue, when its caller has already given
+ * up. A caller that times out never leaves a queued hash behind. The BCrypt cost is
+ * calibrated at startup to take about the target time on this hardware, and stored hashes
+ * with a lower cost are reported as needing an upgrade so they are rehashed on login.
+ * Queue depth, active threads and shed requests are published as password.hashing.* metrics.
+ */
+@Component
+@RequiredArgsConstructor
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+
+    private final MeterRegistry meterRegistry;
+
+    // 0 means one thread per CPU core; BCrypt is CPU-bound, so more threads only add queueing
+    @Value("${app.password-hashing.threads:0}")
+    private int threads;
+
+    @Value("${app.password-hashing.queue-capacity:32}")
+    private int queueCapacity;
+
+    @Value("${app.password-hashing.max-wait-ms:5000}")
+    private long maxWaitMs;
+
+    @Value("${app.password-hashing.target-hash-ms:250}")
+    private long targetHashMs;
+
+    @Value("${app.password-hashing.min-cost:10}")
+    private int minCost;
+
+    @Value("${app.password-hashing.max-cost:14}")
+    private int maxCost;
+
+    private final AtomicLong shed = new AtomicLong();
+    // Moving average of recent hash durations, used to estimate the wait of new work
+    private volatile double averageHashMs;
+    private ThreadPoolExecutor executor;
+    private BCryptPasswordEncoder delegate;
+
+    @PostConstruct
+    public void start() {
+        if (threads <= 0) {
+            threads = Runtime.getRuntime().availableProcessors();
+        }
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "password-hashing");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+
+        int cost = calibrateCost();
+        delegate = new BCryptPasswordEncoder(cost);
+        logger.info("Using BCrypt cost {} (target {} ms per hash) on {} threads", cost, targetHashMs, threads);
+
+        Gauge.builder("password.hashing.queue.depth", executor, pool -> pool.getQueue().size()).register(meterRegistry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+        FunctionCounter.builder("password.hashing.shed", shed, AtomicLong::get).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    // True for hashes made with a lower cost than the calibrated one
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T run(Callable<T> task) {
+        // Every queued or running operation ahead of this one takes about one hash on some thread
+        int ahead = executor.getQueue().size() + executor.getActiveCount();
+        double estimatedMs = (ahead / threads + 1) * averageHashMs;
+        if (estimatedMs > maxWaitMs) {
+            shed.incrementAndGet();
+            throw new PasswordHashingOverloadedException("Too many password operations in progress");
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                // The caller stopped waiting while this sat in the queue; do not start a hash for nobody
+                if (System.nanoTime() - deadline > 0) {
+                    throw new PasswordHashingOverloadedException("Password operation expired in the queue");
+                }
+                long start = System.nanoTime();
+                try {
+                    return task.call();
+                } finally {
+                    recordHash(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            shed.incrementAndGet();
+            throw new PasswordHashingOverloadedException("Too many password operations in progress");
+        }
+
+        try {
+            return future.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Only removes it from the queue; a hash already running cannot be stopped
+            future.cancel(false);
+            shed.incrementAndGet();
+            throw new PasswordHashingOverloadedException("Password operation timed out");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(false);
+            throw new PasswordHashingOverloadedException("Password operation interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void recordHash(long elapsedMs) {
+        averageHashMs = averageHashMs * 0.9 + elapsedMs * 0.1;
+    }
+
+    // Highest cost whose hash still takes no longer than the target, within the configured bounds
+    private int calibrateCost() {
+        int cost = minCost;
+        long start = System.nanoTime();
+        new BCryptPasswordEncoder(cost).encode(CALIBRATION_PASSWORD);
+        averageHashMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        while (cost < maxCost) {
+            start = System.nanoTime();
+            new BCryptPasswordEncoder(cost + 1).encode(CALIBRATION_PASSWORD);
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (elapsedMs > targetHashMs) {
+                break;
+            }
+            cost++;
+            averageHashMs = elapsedMs;
+        }
+        return cost;
+    }
+}
@@ -1,26 +1,42 @@
 package com.skillsharing.security;
 
+import com.skillsharing.model.User;
 import com.skillsharing.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.userdetails.User;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
-
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
+    private final PrincipalCache principalCache;
+    private final MongoTemplate mongoTemplate;
     private final UserRepository userRepository;
 
+    // Login path: the password hash is read fresh, never from PrincipalCache
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        com.skillsharing.model.User user = userRepository.findByEmail(email)
+        return userRepository.findByEmail(email)
+            .map(UserPrincipal::forLogin)
             .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
+    }
 
-        return new User(user.getEmail(), user.getPassword(), new ArrayList<>());
+    // Called after a successful login whose stored hash used an outdated cost
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        mongoTemplate.updateFirst(
+            new Query(Criteria.where("email").is(user.getUsername())),
+            new Update().set("password", newPassword),
+            User.class);
+        principalCache.invalidateByEmail(user.getUsername());
+        return loadUserByUsername(user.getUsername());
     }
 }
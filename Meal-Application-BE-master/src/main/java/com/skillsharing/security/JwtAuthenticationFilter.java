@@ -2,14 +2,16 @@ package com.skillsharing.security;
 
 import java.io.IOException;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -21,7 +23,21 @@ import lombok.RequiredArgsConstructor;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
+    private final TokenRevocationService tokenRevocationService;
+    private final StreamTicketService streamTicketService;
+
+    // Tokens issued before userId claims existed still fall back to the lookup
+    @Value("${app.security.stateless-auth:false}")
+    private boolean statelessAuth;
+
+    // EventSource and WebSocket clients cannot send headers, so these paths also accept a stream
+    // ticket as a query parameter; the JWT itself is never read from the URL
+    private static final String[] TICKET_PATHS = {
+        "/stream",
+        "/ws/chat"
+    };
+    private static final String TICKET_PARAMETER = "ticket";
 
     private static final String[] PUBLIC_PATHS = {
         "/auth/register",
@@ -44,18 +60,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         final String jwt;
         final String userEmail;
 
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            jwt = authHeader.substring(7);
+        } else if (acceptsTicket(request.getServletPath()) && request.getParameter(TICKET_PARAMETER) != null) {
+            authenticateWithTicket(request, request.getParameter(TICKET_PARAMETER));
+            filterChain.doFilter(request, response);
+            return;
+        } else {
             filterChain.doFilter(request, response);
             return;
         }
 
-        jwt = authHeader.substring(7);
         try {
-            userEmail = jwtService.extractUsername(jwt);
+            // Signature and expiry are verified here, once per request
+            final Claims claims = jwtService.parseClaims(jwt);
+            userEmail = claims.getSubject();
             
-            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-                if (jwtService.isTokenValid(jwt, userDetails)) {
+            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null
+                    && !tokenRevocationService.isRevoked(claims)) {
+                UserDetails userDetails = statelessAuth && claims.get(JwtService.USER_ID_CLAIM) != null
+                    ? principalFromClaims(claims)
+                    : principalCache.getByEmail(userEmail)
+                        .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + userEmail));
+                if (jwtService.isTokenValid(claims, userDetails)) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -72,9 +99,41 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private void authenticateWithTicket(HttpServletRequest request, String ticket) {
+        try {
+            streamTicketService.redeem(ticket)
+                .flatMap(principalCache::getById)
+                .filter(UserPrincipal::isEnabled)
+                .ifPresent(principal -> {
+                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        principal,
+                        null,
+                        principal.getAuthorities()
+                    );
+                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                });
+        } catch (Exception e) {
+            logger.error("Could not authenticate stream ticket", e);
+        }
+    }
+
+    // Stateless mode: the token's claims are the principal, no user lookup at all
+    private UserPrincipal principalFromClaims(Claims claims) {
+        return new UserPrincipal(
+            claims.get(JwtService.USER_ID_CLAIM, String.class),
+            claims.getSubject(),
+            claims.get(JwtService.USERNAME_CLAIM, String.class),
+            claims.get(JwtService.ROLE_CLAIM, String.class));
+    }
+
     private boolean isPublicPath(String requestUri) {
         return java.util.Arrays.stream(PUBLIC_PATHS)
             .anyMatch(requestUri::startsWith);
     }
+
+    private boolean acceptsTicket(String requestUri) {
+        return java.util.Arrays.asList(TICKET_PATHS).contains(requestUri);
+    }
     
 }
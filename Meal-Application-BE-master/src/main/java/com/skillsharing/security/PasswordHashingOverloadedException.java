@@ -0,0 +1,9 @@
+package com.skillsharing.security;
+
+// Thrown when a password hash or check is shed because the hashing pool is saturated
+public class PasswordHashingOverloadedException extends RuntimeException {
+
+    public PasswordHashingOverloadedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,175 @@
+package com.skillsharing.security;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import com.skillsharing.model.User;
+import com.skillsharing.repository.UserRepository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Bounded, expiring cache of authenticated users' principals, keyed by email and by id.
+ *
+ * The JWT filter resolves the principal through this cache and stores it in the security
+ * context, so controllers that only need the caller's id read it from there without
+ * another lookup. Entries are evicted least recently used first once the cache is full,
+ * expire after the TTL, and are invalidated when the profile changes. Hits, misses and
+ * evictions are published as principal.cache.* metrics.
+ */
+@Component
+@RequiredArgsConstructor
+public class PrincipalCache {
+
+    private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.principal-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${app.principal-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    // Access-ordered by email; guarded by its own monitor together with idToEmail
+    private final LinkedHashMap<String, Entry> byEmail = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<String, String> idToEmail = new HashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @PostConstruct
+    public void registerMetrics() {
+        FunctionCounter.builder("principal.cache.hits", hits, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("principal.cache.misses", misses, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("principal.cache.evictions", evictions, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("principal.cache.size", this, PrincipalCache::size).register(meterRegistry);
+    }
+
+    public Optional<UserPrincipal> getByEmail(String email) {
+        UserPrincipal cached = lookup(email);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return Optional.of(cached);
+        }
+        misses.incrementAndGet();
+        return userRepository.findByEmail(email).map(this::put);
+    }
+
+    public Optional<UserPrincipal> getById(String userId) {
+        String email;
+        synchronized (byEmail) {
+            email = idToEmail.get(userId);
+        }
+        UserPrincipal cached = email != null ? lookup(email) : null;
+        if (cached != null) {
+            hits.incrementAndGet();
+            return Optional.of(cached);
+        }
+        misses.incrementAndGet();
+        return userRepository.findById(userId).map(this::put);
+    }
+
+    // Principal of the current request, as placed in the security context by the JWT filter
+    public Optional<UserPrincipal> current() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return Optional.empty();
+        }
+        if (authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return Optional.of(principal);
+        }
+        return getByEmail(authentication.getName());
+    }
+
+    /**
+     * Principal of the current request with its profile fields (name, handle, picture). In
+     * stateless mode the request principal is built from token claims only, so it is
+     * completed from the cache.
+     */
+    public Optional<UserPrincipal> currentProfile() {
+        return current().flatMap(principal -> principal.isProfileLoaded()
+            ? Optional.of(principal)
+            : getById(principal.getId()));
+    }
+
+    public void invalidate(User user) {
+        synchronized (byEmail) {
+            String email = idToEmail.remove(user.getId());
+            if (email != null) {
+                byEmail.remove(email);
+            }
+            if (user.getEmail() != null) {
+                byEmail.remove(user.getEmail());
+            }
+        }
+    }
+
+    public void invalidateByEmail(String email) {
+        synchronized (byEmail) {
+            Entry entry = byEmail.remove(email);
+            if (entry != null) {
+                idToEmail.remove(entry.principal.getId(), email);
+            }
+        }
+    }
+
+    public int size() {
+        synchronized (byEmail) {
+            return byEmail.size();
+        }
+    }
+
+    private UserPrincipal lookup(String email) {
+        synchronized (byEmail) {
+            Entry entry = byEmail.get(email);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt < System.currentTimeMillis()) {
+                remove(email, entry);
+                return null;
+            }
+            return entry.principal;
+        }
+    }
+
+    private UserPrincipal put(User user) {
+        UserPrincipal principal = new UserPrincipal(user);
+        synchronized (byEmail) {
+            byEmail.put(principal.getEmail(), new Entry(principal, System.currentTimeMillis() + ttlSeconds * 1000));
+            idToEmail.put(principal.getId(), principal.getEmail());
+
+            Iterator<Map.Entry<String, Entry>> eldest = byEmail.entrySet().iterator();
+            while (byEmail.size() > maxSize && eldest.hasNext()) {
+                Map.Entry<String, Entry> entry = eldest.next();
+                eldest.remove();
+                idToEmail.remove(entry.getValue().principal.getId(), entry.getKey());
+                evictions.incrementAndGet();
+            }
+        }
+        return principal;
+    }
+
+    private void remove(String email, Entry entry) {
+        byEmail.remove(email);
+        idToEmail.remove(entry.principal.getId(), email);
+        evictions.incrementAndGet();
+    }
+
+    private record Entry(UserPrincipal principal, long expiresAt) {
+    }
+}
@@ -0,0 +1,61 @@
+package com.skillsharing.security;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.skillsharing.model.StreamTicket;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Tickets that stand in for the JWT in the query string of /stream and /ws/chat, where
+ * EventSource and WebSocket clients cannot set headers. A ticket is issued to an already
+ * authenticated caller, lives for a few seconds and is consumed by the first connection that
+ * presents it, so a URL that ends up in a log or in the browser history is worthless.
+ * Tickets are kept in Mongo so any node can redeem one issued by another.
+ */
+@Service
+@RequiredArgsConstructor
+public class StreamTicketService {
+
+    private static final int TICKET_BYTES = 32;
+
+    private final MongoTemplate mongoTemplate;
+    private final SecureRandom random = new SecureRandom();
+
+    @Value("${app.stream-tickets.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    public String issue(String userId) {
+        byte[] bytes = new byte[TICKET_BYTES];
+        random.nextBytes(bytes);
+        String ticket = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        mongoTemplate.insert(StreamTicket.builder()
+            .id(ticket)
+            .userId(userId)
+            .expiresAt(Instant.now().plusSeconds(ttlSeconds))
+            .build());
+        return ticket;
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    // The user the ticket was issued to; removing it in the same operation makes it single-use
+    public Optional<String> redeem(String ticket) {
+        // The TTL monitor only runs about once a minute, so expiry is checked here as well
+        Query query = new Query(Criteria.where("id").is(ticket).and("expiresAt").gt(Instant.now()));
+        return Optional.ofNullable(mongoTemplate.findAndRemove(query, StreamTicket.class))
+            .map(StreamTicket::getUserId);
+    }
+}
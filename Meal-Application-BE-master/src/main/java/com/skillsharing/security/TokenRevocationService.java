@@ -0,0 +1,147 @@
+package com.skillsharing.security;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.skillsharing.model.RevokedToken;
+
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Revocation of tokens before they expire, for logout and password changes.
+ *
+ * Revoked token ids are stored in revoked_tokens and mirrored into an in-memory Bloom
+ * filter. The JWT filter asks the Bloom filter first, so a request with a token that was
+ * never revoked costs a few bit lookups; only Bloom hits are confirmed against Mongo.
+ * Subject-wide revocations are few and kept in memory outright. Both are rebuilt from
+ * Mongo periodically, which drops expired entries and picks up other nodes' revocations.
+ */
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+    private static final String SUBJECT_PREFIX = "sub:";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${spring.security.jwt.expiration}")
+    private long jwtExpiration;
+
+    @Value("${app.token-revocation.expected-entries:100000}")
+    private int expectedEntries;
+
+    @Value("${app.token-revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    private volatile BloomFilter revokedIds;
+    private volatile Map<String, Instant> subjectNotBefore = new ConcurrentHashMap<>();
+
+    // Revoked here while a rebuild was reading Mongo; added to the new filter so none are lost
+    private final Set<String> revokedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    // Held while revocations touch the in-memory state and while a rebuild merges and swaps it in
+    private final Object swapLock = new Object();
+
+    @PostConstruct
+    public void init() {
+        revokedIds = new BloomFilter(expectedEntries, falsePositiveRate);
+        rebuild();
+    }
+
+    public boolean isRevoked(Claims claims) {
+        String jti = claims.getId();
+        if (jti != null && revokedIds.mightContain(jti)
+                && mongoTemplate.exists(new Query(Criteria.where("id").is(jti)), RevokedToken.class)) {
+            return true;
+        }
+
+        Instant notBefore = subjectNotBefore.get(claims.getSubject());
+        return notBefore != null
+            && claims.getIssuedAt() != null
+            && claims.getIssuedAt().toInstant().isBefore(notBefore);
+    }
+
+    // Revoke one token, e.g. on logout
+    public void revoke(Claims claims) {
+        if (claims.getId() == null) {
+            return;
+        }
+        mongoTemplate.save(RevokedToken.builder()
+            .id(claims.getId())
+            .subject(claims.getSubject())
+            .expiresAt(claims.getExpiration().toInstant())
+            .build());
+        synchronized (swapLock) {
+            revokedDuringRebuild.add(claims.getId());
+            revokedIds.put(claims.getId());
+        }
+    }
+
+    /**
+     * Revoke every token of the subject issued before now, e.g. after a password change.
+     * Token times have second precision, so tokens issued in the same second survive.
+     */
+    public void revokeAllForSubject(String subject) {
+        Instant notBefore = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        mongoTemplate.save(RevokedToken.builder()
+            .id(SUBJECT_PREFIX + subject)
+            .subject(subject)
+            .notBefore(notBefore)
+            .expiresAt(notBefore.plusMillis(jwtExpiration))
+            .build());
+        synchronized (swapLock) {
+            subjectNotBefore.put(subject, notBefore);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.token-revocation.refresh-interval-ms:60000}")
+    public void rebuild() {
+        revokedDuringRebuild.clear();
+
+        Query query = new Query(Criteria.where("expiresAt").gt(Instant.now()));
+        query.fields().include("id", "subject", "notBefore");
+        List<RevokedToken> entries = mongoTemplate.find(query, RevokedToken.class);
+
+        BloomFilter filter = new BloomFilter(Math.max(expectedEntries, entries.size() * 2), falsePositiveRate);
+        Map<String, Instant> subjects = new ConcurrentHashMap<>();
+        for (RevokedToken entry : entries) {
+            if (entry.getNotBefore() != null) {
+                subjects.put(entry.getSubject(), entry.getNotBefore());
+            } else {
+                filter.put(entry.getId());
+            }
+        }
+
+        // Merge and swap under the lock, so a revocation lands either in the merge or in the new state
+        synchronized (swapLock) {
+            revokedDuringRebuild.forEach(filter::put);
+            // Keep subject revocations made here after the query ran, unless they have lapsed
+            Instant lapsedBefore = Instant.now().minusMillis(jwtExpiration);
+            subjectNotBefore.forEach((subject, notBefore) -> {
+                if (notBefore.isAfter(lapsedBefore)) {
+                    subjects.merge(subject, notBefore, (a, b) -> a.isAfter(b) ? a : b);
+                }
+            });
+
+            revokedIds = filter;
+            subjectNotBefore = subjects;
+        }
+        logger.debug("Rebuilt token revocation filter with {} entries", entries.size());
+    }
+}
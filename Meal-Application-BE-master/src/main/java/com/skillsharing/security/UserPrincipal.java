@@ -0,0 +1,99 @@
+package com.skillsharing.security;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.skillsharing.model.User;
+
+import lombok.Getter;
+
+/**
+ * Immutable identity of an authenticated user, cached by PrincipalCache.
+ *
+ * getUsername() returns the email, as the JWT subject and authentication.getName() always
+ * have; the user's handle is getHandle(). Controllers that change the user still load the
+ * User document itself, so a cached principal is never written back to the database.
+ *
+ * Principals kept in PrincipalCache carry no password hash. Only the login path builds one
+ * with the hash (forLogin), straight from the database, so a password changed on another
+ * node is never checked against a stale cached hash.
+ */
+@Getter
+public class UserPrincipal implements UserDetails {
+
+    private final String id;
+    private final String email;
+    private final String handle;
+    private final String firstName;
+    private final String lastName;
+    private final String profilePicture;
+    private final String role;
+    private final String password;
+    private final boolean enabled;
+    // False for principals built from token claims, which lack the name and picture
+    private final boolean profileLoaded;
+
+    public UserPrincipal(User user) {
+        this(user, null);
+    }
+
+    private UserPrincipal(User user, String password) {
+        this.id = user.getId();
+        this.email = user.getEmail();
+        this.handle = user.getUsername();
+        this.firstName = user.getFirstName();
+        this.lastName = user.getLastName();
+        this.profilePicture = user.getProfilePicture();
+        this.role = user.getRole();
+        this.password = password;
+        this.enabled = user.isEnabled();
+        this.profileLoaded = true;
+    }
+
+    // For the authentication provider to check a login against; never cached
+    public static UserPrincipal forLogin(User user) {
+        return new UserPrincipal(user, user.getPassword());
+    }
+
+    // Built from verified token claims in stateless mode; only identity fields are known
+    public UserPrincipal(String id, String email, String handle, String role) {
+        this.id = id;
+        this.email = email;
+        this.handle = handle;
+        this.firstName = null;
+        this.lastName = null;
+        this.profilePicture = null;
+        this.role = role;
+        this.password = null;
+        this.enabled = true;
+        this.profileLoaded = false;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of();
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+}
@@ -13,6 +13,10 @@ import com.skillsharing.dto.RegisterRequest;
 import com.skillsharing.model.User;
 import com.skillsharing.repository.UserRepository;
 import com.skillsharing.security.JwtService;
+import com.skillsharing.security.PasswordHashingOverloadedException;
+import com.skillsharing.security.TokenRevocationService;
+
+import io.jsonwebtoken.JwtException;
 
 import lombok.RequiredArgsConstructor;
 
@@ -24,6 +28,7 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final TokenRevocationService tokenRevocationService;
 
     public Map<String, Object> register(RegisterRequest request) {
         if (userRepository.existsByEmail(request.getEmail())) {
@@ -43,11 +48,7 @@ public class AuthService {
 
         userRepository.save(user);
 
-        String token = jwtService.generateToken(new org.springframework.security.core.userdetails.User(
-            user.getEmail(),
-            user.getPassword(),
-            java.util.Collections.emptyList()
-        ));
+        String token = jwtService.generateToken(user);
 
         Map<String, Object> response = new HashMap<>();
         response.put("token", token);
@@ -64,11 +65,7 @@ public class AuthService {
             var user = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new RuntimeException("User not found with email: " + request.getEmail()));
 
-            String token = jwtService.generateToken(new org.springframework.security.core.userdetails.User(
-                user.getEmail(),
-                user.getPassword(),
-                java.util.Collections.emptyList()
-            ));
+            String token = jwtService.generateToken(user);
 
             Map<String, Object> response = new HashMap<>();
             response.put("token", token);
@@ -76,8 +73,25 @@ public class AuthService {
             return response;
         } catch (org.springframework.security.authentication.BadCredentialsException e) {
             throw new RuntimeException("Invalid email or password");
+        } catch (PasswordHashingOverloadedException e) {
+            throw e;
+        } catch (org.springframework.security.authentication.InternalAuthenticationServiceException e) {
+            // Shedding while checking a missing user arrives wrapped by the provider
+            if (e.getCause() instanceof PasswordHashingOverloadedException overloaded) {
+                throw overloaded;
+            }
+            throw new RuntimeException("Authentication failed: " + e.getMessage());
         } catch (Exception e) {
             throw new RuntimeException("Authentication failed: " + e.getMessage());
         }
     }
+
+    // Revoke the presented token; an invalid or expired token needs no revoking
+    public void logout(String token) {
+        try {
+            tokenRevocationService.revoke(jwtService.parseClaims(token));
+        } catch (JwtException | IllegalArgumentException e) {
+            // Nothing to revoke
+        }
+    }
 }
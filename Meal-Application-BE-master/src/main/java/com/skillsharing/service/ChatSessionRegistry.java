@@ -0,0 +1,25 @@
+package com.skillsharing.service;
+
+import org.springframework.web.socket.WebSocketSession;
+
+/**
+ * Routes chat frames to users' live WebSocket sessions.
+ *
+ * The in-process implementation only knows the sessions of this node. A multi-node setup
+ * can provide another implementation that registers sessions locally and relays frames
+ * for users connected elsewhere through a broker.
+ */
+public interface ChatSessionRegistry {
+
+    void register(String userId, WebSocketSession session);
+
+    void unregister(String userId, WebSocketSession session);
+
+    /**
+     * Send a text frame to every live session of the user. Returns the number of sessions
+     * the frame was handed to, so zero means the user is not connected.
+     */
+    int sendToUser(String userId, String payload);
+
+    boolean isOnline(String userId);
+}
@@ -0,0 +1,220 @@
+package com.skillsharing.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.skillsharing.dto.CommentPageDTO;
+import com.skillsharing.model.Post;
+import com.skillsharing.model.PostComment;
+import com.skillsharing.repository.PostCommentRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Comments live in their own collection. The post document only keeps a commentCount and
+ * the latest few comments as a preview, so comment writes no longer rewrite the whole post.
+ */
+@Service
+@RequiredArgsConstructor
+public class CommentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommentService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final PostCommentRepository postCommentRepository;
+
+    @Value("${app.comments.preview-size:3}")
+    private int previewSize;
+
+    @Value("${app.comments.page-size:20}")
+    private int defaultPageSize;
+
+    @Value("${app.comments.max-page-size:100}")
+    private int maxPageSize;
+
+    /**
+     * Store a new comment and push it into the post's preview. Returns the updated post,
+     * or null when the post does not exist.
+     */
+    public Post addComment(String postId, String authorId, String authorName, String authorPicture, String content) {
+        LocalDateTime now = LocalDateTime.now();
+        PostComment comment = PostComment.builder()
+            .id(UUID.randomUUID().toString())
+            .postId(postId)
+            .userId(authorId)
+            .username(authorName)
+            .userProfilePicture(authorPicture)
+            .content(content)
+            .createdAt(now)
+            .updatedAt(now)
+            .edited(false)
+            .build();
+        postCommentRepository.save(comment);
+
+        Update update = new Update()
+            .push("comments").slice(-previewSize).each(comment.toPreview())
+            .inc("commentCount", 1);
+        Post post = mongoTemplate.findAndModify(
+            new Query(Criteria.where("id").is(postId)), update, returnNew(), Post.class);
+
+        if (post == null) {
+            // The post was deleted in the meantime
+            postCommentRepository.delete(comment);
+        }
+        return post;
+    }
+
+    /**
+     * Update a comment's content, mirroring the change into the preview when the comment is in it.
+     */
+    public Post editComment(PostComment comment, String content) {
+        LocalDateTime now = LocalDateTime.now();
+        comment.setContent(content);
+        comment.setUpdatedAt(now);
+        comment.setEdited(true);
+        postCommentRepository.save(comment);
+
+        Query previewQuery = new Query(Criteria.where("id").is(comment.getPostId())
+            .and("comments.id").is(comment.getId()));
+        Update update = new Update()
+            .set("comments.$.content", content)
+            .set("comments.$.updatedAt", now)
+            .set("comments.$.edited", true);
+        Post post = mongoTemplate.findAndModify(previewQuery, update, returnNew(), Post.class);
+
+        return post != null ? post : mongoTemplate.findById(comment.getPostId(), Post.class);
+    }
+
+    /**
+     * Remove a comment and rebuild the preview from the newest remaining comments. The count
+     * is only decremented by the request that actually removed the comment.
+     */
+    public Post deleteComment(PostComment comment) {
+        long deleted = mongoTemplate.remove(
+            new Query(Criteria.where("id").is(comment.getId())), PostComment.class).getDeletedCount();
+
+        Update update = new Update().set("comments", latestPreview(comment.getPostId()));
+        if (deleted == 1) {
+            update.inc("commentCount", -1);
+        }
+        return mongoTemplate.findAndModify(
+            new Query(Criteria.where("id").is(comment.getPostId())), update, returnNew(), Post.class);
+    }
+
+    // One page of a post's comments, newest first
+    public CommentPageDTO getComments(String postId, String cursor, Integer limit) {
+        int pageSize = limit == null || limit <= 0 ? defaultPageSize : Math.min(limit, maxPageSize);
+
+        Query query = new Query(Criteria.where("postId").is(postId));
+        if (cursor != null && !cursor.isEmpty()) {
+            FeedService.FeedCursor commentCursor = FeedService.decodeCursor(cursor);
+            query.addCriteria(new Criteria().orOperator(
+                Criteria.where("createdAt").lt(commentCursor.createdAt()),
+                new Criteria().andOperator(
+                    Criteria.where("createdAt").is(commentCursor.createdAt()),
+                    Criteria.where("id").lt(commentCursor.id())
+                )
+            ));
+        }
+        query.with(Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id")));
+        query.limit(pageSize + 1);
+
+        List<PostComment> comments = mongoTemplate.find(query, PostComment.class);
+        boolean hasMore = comments.size() > pageSize;
+        if (hasMore) {
+            comments = comments.subList(0, pageSize);
+        }
+
+        PostComment last = comments.isEmpty() ? null : comments.get(comments.size() - 1);
+        return CommentPageDTO.builder()
+            .comments(comments)
+            .nextCursor(hasMore ? FeedService.encodeCursor(last.getCreatedAt(), last.getId()) : null)
+            .hasMore(hasMore)
+            .totalCount(postCommentRepository.countByPostId(postId))
+            .build();
+    }
+
+    public void deleteCommentsForPosts(Collection<String> postIds) {
+        postCommentRepository.deleteByPostIdIn(postIds);
+    }
+
+    /**
+     * Move comments embedded in posts written before the comments collection existed.
+     * Posts without a commentCount field have not been migrated yet.
+     */
+    public long migrateEmbeddedComments() {
+        Query query = new Query(Criteria.where("commentCount").exists(false));
+        query.fields().include("id", "comments");
+
+        long migrated = 0;
+        try (Stream<Post> posts = mongoTemplate.stream(query, Post.class)) {
+            for (Post post : (Iterable<Post>) posts::iterator) {
+                List<Post.Comment> embedded = post.getComments() != null ? post.getComments() : List.of();
+
+                List<PostComment> comments = embedded.stream()
+                    .map(comment -> PostComment.fromPreview(post.getId(), comment))
+                    .collect(Collectors.toList());
+                // save() upserts by id, so a migration interrupted halfway can simply run again
+                postCommentRepository.saveAll(comments);
+
+                List<Post.Comment> preview = new ArrayList<>(embedded);
+                preview.sort((a, b) -> compareCreatedAt(a.getCreatedAt(), b.getCreatedAt()));
+                if (preview.size() > previewSize) {
+                    preview = preview.subList(preview.size() - previewSize, preview.size());
+                }
+
+                mongoTemplate.updateFirst(
+                    new Query(Criteria.where("id").is(post.getId())),
+                    new Update().set("comments", preview).set("commentCount", comments.size()),
+                    Post.class);
+                migrated++;
+            }
+        }
+
+        if (migrated > 0) {
+            logger.info("Migrated embedded comments of {} posts", migrated);
+        }
+        return migrated;
+    }
+
+    // Newest comments of the post in ascending order, as they are shown under the post
+    private List<Post.Comment> latestPreview(String postId) {
+        Query query = new Query(Criteria.where("postId").is(postId))
+            .with(Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id")))
+            .limit(previewSize);
+
+        List<Post.Comment> preview = mongoTemplate.find(query, PostComment.class).stream()
+            .map(PostComment::toPreview)
+            .collect(Collectors.toList());
+        Collections.reverse(preview);
+        return preview;
+    }
+
+    private int compareCreatedAt(LocalDateTime a, LocalDateTime b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        return a.compareTo(b);
+    }
+
+    private FindAndModifyOptions returnNew() {
+        return FindAndModifyOptions.options().returnNew(true);
+    }
+}
@@ -3,15 +3,22 @@ package com.skillsharing.service;
 import com.skillsharing.dto.CommunityChallengeDTO;
 import com.skillsharing.model.Community;
 import com.skillsharing.model.CommunityChallenge;
-import com.skillsharing.model.User;
 import com.skillsharing.repository.CommunityChallengeRepository;
 import com.skillsharing.repository.CommunityRepository;
-import com.skillsharing.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -25,7 +32,10 @@ public class CommunityChallengeService {
     private CommunityRepository communityRepository;
     
     @Autowired
-    private UserRepository userRepository;
+    private DisplayNameResolver displayNameResolver;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
     
     // Create a new challenge
     public CommunityChallengeDTO createChallenge(CommunityChallenge challenge, String userId) {
@@ -40,11 +50,14 @@ public class CommunityChallengeService {
                 challenge.setCreatedAt(LocalDateTime.now());
                 
                 CommunityChallenge savedChallenge = challengeRepository.save(challenge);
+                mongoTemplate.updateFirst(new Query(Criteria.where("id").is(savedChallenge.getId())),
+                        new Update().set("participantCount", savedChallenge.getParticipants().size()),
+                        CommunityChallenge.class);
+                savedChallenge.setParticipantCount(savedChallenge.getParticipants().size());
                 CommunityChallengeDTO dto = new CommunityChallengeDTO(savedChallenge);
                 
                 // Set additional fields
-                Optional<User> creator = userRepository.findById(userId);
-                creator.ifPresent(user -> dto.setCreatorName(user.getFullName()));
+                dto.setCreatorName(displayNameResolver.userName(userId));
                 
                 dto.setCommunityName(community.getName());
                 
@@ -63,13 +76,9 @@ public class CommunityChallengeService {
             CommunityChallenge challenge = challengeOpt.get();
             CommunityChallengeDTO dto = new CommunityChallengeDTO(challenge);
             
-            // Set creator name
-            Optional<User> creator = userRepository.findById(challenge.getCreatorId());
-            creator.ifPresent(user -> dto.setCreatorName(user.getFullName()));
-            
-            // Set community name
-            Optional<Community> community = communityRepository.findById(challenge.getCommunityId());
-            community.ifPresent(c -> dto.setCommunityName(c.getName()));
+            // Set creator and community name
+            dto.setCreatorName(displayNameResolver.userName(challenge.getCreatorId()));
+            dto.setCommunityName(displayNameResolver.communityName(challenge.getCommunityId()));
             
             // Set participation status for current user
             if (currentUserId != null) {
@@ -85,163 +94,105 @@ public class CommunityChallengeService {
     // Get all challenges for a community
     public List<CommunityChallengeDTO> getChallengesByCommunity(String communityId, String currentUserId) {
         List<CommunityChallenge> challenges = challengeRepository.findByCommunityId(communityId);
-        
-        Optional<Community> communityOpt = communityRepository.findById(communityId);
-        String communityName = communityOpt.map(Community::getName).orElse("");
-        
-        return challenges.stream()
-                .map(challenge -> {
-                    CommunityChallengeDTO dto = new CommunityChallengeDTO(challenge);
-                    
-                    // Set creator name
-                    Optional<User> creator = userRepository.findById(challenge.getCreatorId());
-                    creator.ifPresent(user -> dto.setCreatorName(user.getFullName()));
-                    
-                    dto.setCommunityName(communityName);
-                    
-                    // Set participation status for current user
-                    if (currentUserId != null) {
-                        dto.setParticipant(challenge.getParticipants().contains(currentUserId));
-                    }
-                    
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        return toDTOs(challenges, currentUserId);
     }
     
     // Get active challenges for a community
     public List<CommunityChallengeDTO> getActiveChallenges(String communityId, String currentUserId) {
         List<CommunityChallenge> challenges = challengeRepository.findActiveChallenges(
                 communityId, LocalDateTime.now());
-        
-        Optional<Community> communityOpt = communityRepository.findById(communityId);
-        String communityName = communityOpt.map(Community::getName).orElse("");
-        
-        return challenges.stream()
-                .map(challenge -> {
-                    CommunityChallengeDTO dto = new CommunityChallengeDTO(challenge);
-                    
-                    // Set creator name
-                    Optional<User> creator = userRepository.findById(challenge.getCreatorId());
-                    creator.ifPresent(user -> dto.setCreatorName(user.getFullName()));
-                    
-                    dto.setCommunityName(communityName);
-                    
-                    // Set participation status for current user
-                    if (currentUserId != null) {
-                        dto.setParticipant(challenge.getParticipants().contains(currentUserId));
-                    }
-                    
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        return toDTOs(challenges, currentUserId);
     }
     
     // Get upcoming challenges for a community
     public List<CommunityChallengeDTO> getUpcomingChallenges(String communityId, String currentUserId) {
         List<CommunityChallenge> challenges = challengeRepository.findUpcomingChallenges(
                 communityId, LocalDateTime.now());
-        
-        Optional<Community> communityOpt = communityRepository.findById(communityId);
-        String communityName = communityOpt.map(Community::getName).orElse("");
-        
-        return challenges.stream()
-                .map(challenge -> {
-                    CommunityChallengeDTO dto = new CommunityChallengeDTO(challenge);
-                    
-                    // Set creator name
-                    Optional<User> creator = userRepository.findById(challenge.getCreatorId());
-                    creator.ifPresent(user -> dto.setCreatorName(user.getFullName()));
-                    
-                    dto.setCommunityName(communityName);
-                    
-                    // Set participation status for current user
-                    if (currentUserId != null) {
-                        dto.setParticipant(challenge.getParticipants().contains(currentUserId));
-                    }
-                    
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        return toDTOs(challenges, currentUserId);
     }
     
     // Get completed challenges for a community
     public List<CommunityChallengeDTO> getCompletedChallenges(String communityId, String currentUserId) {
         List<CommunityChallenge> challenges = challengeRepository.findCompletedChallenges(
                 communityId, LocalDateTime.now());
-        
-        Optional<Community> communityOpt = communityRepository.findById(communityId);
-        String communityName = communityOpt.map(Community::getName).orElse("");
-        
-        return challenges.stream()
-                .map(challenge -> {
-                    CommunityChallengeDTO dto = new CommunityChallengeDTO(challenge);
-                    
-                    // Set creator name
-                    Optional<User> creator = userRepository.findById(challenge.getCreatorId());
-                    creator.ifPresent(user -> dto.setCreatorName(user.getFullName()));
-                    
-                    dto.setCommunityName(communityName);
-                    
-                    // Set participation status for current user
-                    if (currentUserId != null) {
-                        dto.setParticipant(challenge.getParticipants().contains(currentUserId));
-                    }
-                    
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        return toDTOs(challenges, currentUserId);
     }
     
-    // Join a challenge
+    // Join a challenge; only members of the challenge's community can join
     public CommunityChallengeDTO joinChallenge(String challengeId, String userId) {
-        Optional<CommunityChallenge> challengeOpt = challengeRepository.findById(challengeId);
+        Query challengeQuery = new Query(Criteria.where("id").is(challengeId));
+        challengeQuery.fields().include("id", "communityId");
+        CommunityChallenge target = mongoTemplate.findOne(challengeQuery, CommunityChallenge.class);
+        if (target == null) {
+            return null;
+        }
         
-        if (challengeOpt.isPresent()) {
-            CommunityChallenge challenge = challengeOpt.get();
-            
-            // Check if the user is a member of the community
-            Optional<Community> communityOpt = communityRepository.findById(challenge.getCommunityId());
-            
-            if (communityOpt.isPresent() && communityOpt.get().isMember(userId)) {
-                challenge.addParticipant(userId);
-                CommunityChallenge savedChallenge = challengeRepository.save(challenge);
-                
-                CommunityChallengeDTO dto = new CommunityChallengeDTO(savedChallenge);
-                
-                // Set creator name
-                Optional<User> creator = userRepository.findById(challenge.getCreatorId());
-                creator.ifPresent(user -> dto.setCreatorName(user.getFullName()));
-                
-                // Set community name
-                communityOpt.ifPresent(c -> dto.setCommunityName(c.getName()));
-                
-                // Set participation status
-                dto.setParticipant(true);
-                
-                return dto;
+        // Check if the user is a member of the community, without loading its member set
+        Query memberQuery = new Query(Criteria.where("id").is(target.getCommunityId()).and("members").is(userId));
+        if (!mongoTemplate.exists(memberQuery, Community.class)) {
+            return null;
+        }
+        
+        // The response is built from the updated document, read without the participant set
+        CommunityChallenge challenge = addParticipant(challengeId, userId);
+        boolean changed = challenge != null;
+        if (!changed) {
+            Query query = new Query(Criteria.where("id").is(challengeId));
+            query.fields().exclude("participants");
+            challenge = mongoTemplate.findOne(query, CommunityChallenge.class);
+            if (challenge == null) {
+                return null;
             }
         }
         
-        return null;
+        CommunityChallengeDTO dto = new CommunityChallengeDTO(challenge);
+        dto.setParticipants(null);
+        
+        // Set creator and community name
+        dto.setCreatorName(displayNameResolver.userName(challenge.getCreatorId()));
+        dto.setCommunityName(displayNameResolver.communityName(challenge.getCommunityId()));
+        
+        // Set participation status
+        dto.setParticipant(true);
+        dto.setChanged(changed);
+        
+        return dto;
     }
     
-    // Leave a challenge
+    // Leave a challenge. False when the user was not taking part
     public boolean leaveChallenge(String challengeId, String userId) {
-        Optional<CommunityChallenge> challengeOpt = challengeRepository.findById(challengeId);
-        
-        if (challengeOpt.isPresent()) {
-            CommunityChallenge challenge = challengeOpt.get();
-            
-            // Cannot leave a challenge if you've already submitted
-            if (challenge.getParticipants().contains(userId)) {
-                challenge.removeParticipant(userId);
-                challengeRepository.save(challenge);
-                return true;
-            }
-        }
-        
-        return false;
+        return removeParticipant(challengeId, userId);
+    }
+    
+    /**
+     * Add a participant in one guarded update, counting them only if they were not taking
+     * part yet. Returns the updated challenge without its participant set (submissions are kept,
+     * submissionCount is read from them), or null when nothing changed.
+     */
+    public CommunityChallenge addParticipant(String challengeId, String userId) {
+        Query query = new Query(Criteria.where("id").is(challengeId).and("participants").ne(userId));
+        query.fields().exclude("participants");
+        Update update = new Update().addToSet("participants", userId).inc("participantCount", 1);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+                CommunityChallenge.class);
+    }
+    
+    // Remove a participant in one guarded update. Returns whether the user was removed
+    public boolean removeParticipant(String challengeId, String userId) {
+        Query query = new Query(Criteria.where("id").is(challengeId).and("participants").is(userId));
+        Update update = new Update().pull("participants", userId).inc("participantCount", -1);
+        return mongoTemplate.updateFirst(query, update, CommunityChallenge.class).getModifiedCount() > 0;
+    }
+    
+    /**
+     * Set participantCount from the participants set on challenges written before the counter existed.
+     */
+    public long backfillParticipantCounts() {
+        Query query = new Query(Criteria.where("participantCount").exists(false));
+        AggregationUpdate update = AggregationUpdate.update()
+                .set("participantCount").toValue(ArrayOperators.Size.lengthOfArray(
+                        ConditionalOperators.ifNull("participants").then(List.of())));
+        return mongoTemplate.updateMulti(query, update, CommunityChallenge.class).getModifiedCount();
     }
     
     // Add a submission to a challenge
@@ -253,8 +204,8 @@ public class CommunityChallengeService {
             
             // Can only add submissions to active challenges
             if (challenge.isActive()) {
-                challenge.addSubmission(postId);
-                challengeRepository.save(challenge);
+                mongoTemplate.updateFirst(new Query(Criteria.where("id").is(challengeId)),
+                        new Update().addToSet("submissions", postId), CommunityChallenge.class);
                 return true;
             }
         }
@@ -281,12 +232,17 @@ public class CommunityChallengeService {
                 challenge.setStartDate(updatedChallenge.getStartDate());
                 challenge.setEndDate(updatedChallenge.getEndDate());
                 
-                CommunityChallenge savedChallenge = challengeRepository.save(challenge);
-                CommunityChallengeDTO dto = new CommunityChallengeDTO(savedChallenge);
+                // Only the edited fields are written, so concurrent joins and leaves are kept
+                Update update = new Update()
+                        .set("title", challenge.getTitle())
+                        .set("description", challenge.getDescription())
+                        .set("startDate", challenge.getStartDate())
+                        .set("endDate", challenge.getEndDate());
+                mongoTemplate.updateFirst(new Query(Criteria.where("id").is(challengeId)), update, CommunityChallenge.class);
+                CommunityChallengeDTO dto = new CommunityChallengeDTO(challenge);
                 
                 // Set creator name
-                Optional<User> creator = userRepository.findById(challenge.getCreatorId());
-                creator.ifPresent(user -> dto.setCreatorName(user.getFullName()));
+                dto.setCreatorName(displayNameResolver.userName(challenge.getCreatorId()));
                 
                 // Set community name
                 communityOpt.ifPresent(c -> dto.setCommunityName(c.getName()));
@@ -326,22 +282,26 @@ public class CommunityChallengeService {
     
     // Get challenges where user is participating
     public List<CommunityChallengeDTO> getUserChallenges(String userId) {
-        List<CommunityChallenge> challenges = challengeRepository.findByParticipantId(userId);
+        return toDTOs(challengeRepository.findByParticipantId(userId), userId);
+    }
+    
+    // Creator and community names for the whole list are resolved with one query each
+    private List<CommunityChallengeDTO> toDTOs(List<CommunityChallenge> challenges, String currentUserId) {
+        Map<String, String> creatorNames = displayNameResolver.userNames(
+                challenges.stream().map(CommunityChallenge::getCreatorId).collect(Collectors.toList()));
+        Map<String, String> communityNames = displayNameResolver.communityNames(
+                challenges.stream().map(CommunityChallenge::getCommunityId).collect(Collectors.toList()));
         
         return challenges.stream()
                 .map(challenge -> {
                     CommunityChallengeDTO dto = new CommunityChallengeDTO(challenge);
+                    dto.setCreatorName(creatorNames.get(challenge.getCreatorId()));
+                    dto.setCommunityName(communityNames.getOrDefault(challenge.getCommunityId(), ""));
                     
-                    // Set creator name
-                    Optional<User> creator = userRepository.findById(challenge.getCreatorId());
-                    creator.ifPresent(user -> dto.setCreatorName(user.getFullName()));
-                    
-                    // Set community name
-                    Optional<Community> community = communityRepository.findById(challenge.getCommunityId());
-                    community.ifPresent(c -> dto.setCommunityName(c.getName()));
-                    
-                    // Set participation status
-                    dto.setParticipant(true);
+                    // Set participation status for current user
+                    if (currentUserId != null) {
+                        dto.setParticipant(challenge.getParticipants().contains(currentUserId));
+                    }
                     
                     return dto;
                 })
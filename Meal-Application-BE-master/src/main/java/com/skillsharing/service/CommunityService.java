@@ -1,16 +1,29 @@
 package com.skillsharing.service;
 
 import com.skillsharing.dto.CommunityDTO;
+import com.skillsharing.dto.CommunityPageDTO;
 import com.skillsharing.model.Community;
-import com.skillsharing.model.User;
 import com.skillsharing.repository.CommunityRepository;
-import com.skillsharing.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,7 +33,19 @@ public class CommunityService {
     private CommunityRepository communityRepository;
     
     @Autowired
-    private UserRepository userRepository;
+    private DisplayNameResolver displayNameResolver;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Value("${app.communities.page-size:20}")
+    private int defaultPageSize;
+    
+    @Value("${app.communities.max-page-size:100}")
+    private int maxPageSize;
+    
+    // Listed communities never carry the member, moderator or post id sets
+    private static final String[] LIST_EXCLUDED_FIELDS = {"members", "moderators", "posts"};
     
     // Create a new community
     public CommunityDTO createCommunity(Community community, String userId) {
@@ -31,11 +56,17 @@ public class CommunityService {
         community.addModerator(userId);
         
         Community savedCommunity = communityRepository.save(community);
+        mongoTemplate.updateFirst(new Query(Criteria.where("id").is(savedCommunity.getId())),
+                new Update()
+                        .set("memberCount", savedCommunity.getMembers().size())
+                        .set("postCount", savedCommunity.getPosts().size()),
+                Community.class);
+        savedCommunity.setMemberCount(savedCommunity.getMembers().size());
+        savedCommunity.setPostCount(savedCommunity.getPosts().size());
         CommunityDTO dto = new CommunityDTO(savedCommunity);
         
         // Set additional fields
-        Optional<User> creator = userRepository.findById(userId);
-        creator.ifPresent(user -> dto.setCreatorName(user.getFullName()));
+        dto.setCreatorName(displayNameResolver.userName(userId));
         
         dto.setMember(true);
         dto.setModerator(true);
@@ -52,8 +83,7 @@ public class CommunityService {
             CommunityDTO dto = new CommunityDTO(community);
             
             // Set creator name
-            Optional<User> creator = userRepository.findById(community.getCreatorId());
-            creator.ifPresent(user -> dto.setCreatorName(user.getFullName()));
+            dto.setCreatorName(displayNameResolver.userName(community.getCreatorId()));
             
             // Set membership status for current user
             if (currentUserId != null) {
@@ -67,113 +97,101 @@ public class CommunityService {
         return null;
     }
     
-    // Get all communities
+    // Get the newest communities, at most one maximum-size page of them
     public List<CommunityDTO> getAllCommunities(String currentUserId) {
-        List<Community> communities = communityRepository.findAll();
-        return communities.stream()
-                .map(community -> {
-                    CommunityDTO dto = new CommunityDTO(community);
-                    
-                    // Set creator name
-                    Optional<User> creator = userRepository.findById(community.getCreatorId());
-                    creator.ifPresent(user -> dto.setCreatorName(user.getFullName()));
-                    
-                    // Set membership status for current user
-                    if (currentUserId != null) {
-                        dto.setMember(community.isMember(currentUserId));
-                        dto.setModerator(community.isModerator(currentUserId));
-                    }
-                    
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        Query query = listQuery(new Criteria()).limit(maxPageSize);
+        return toDTOs(mongoTemplate.find(query, Community.class), currentUserId);
+    }
+    
+    // Get one page of all communities, newest first
+    public CommunityPageDTO getAllCommunities(String currentUserId, Integer page, Integer size) {
+        return toPage(listQuery(new Criteria()), currentUserId, page, size);
     }
     
-    // Get communities by category
+    // Get the newest communities in a category, capped like getAllCommunities
     public List<CommunityDTO> getCommunitiesByCategory(String category, String currentUserId) {
-        List<Community> communities = communityRepository.findByCategory(category);
-        return communities.stream()
-                .map(community -> {
-                    CommunityDTO dto = new CommunityDTO(community);
-                    
-                    // Set creator name
-                    Optional<User> creator = userRepository.findById(community.getCreatorId());
-                    creator.ifPresent(user -> dto.setCreatorName(user.getFullName()));
-                    
-                    // Set membership status for current user
-                    if (currentUserId != null) {
-                        dto.setMember(community.isMember(currentUserId));
-                        dto.setModerator(community.isModerator(currentUserId));
-                    }
-                    
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        Query query = listQuery(Criteria.where("category").is(category)).limit(maxPageSize);
+        return toDTOs(mongoTemplate.find(query, Community.class), currentUserId);
     }
     
-    // Get communities where user is a member
+    // Get one page of the communities in a category
+    public CommunityPageDTO getCommunitiesByCategory(String category, String currentUserId, Integer page, Integer size) {
+        return toPage(listQuery(Criteria.where("category").is(category)), currentUserId, page, size);
+    }
+    
+    // Get communities where user is a member, capped like getAllCommunities
     public List<CommunityDTO> getUserCommunities(String userId) {
-        List<Community> communities = communityRepository.findByMemberId(userId);
-        return communities.stream()
-                .map(community -> {
-                    CommunityDTO dto = new CommunityDTO(community);
-                    
-                    // Set creator name
-                    Optional<User> creator = userRepository.findById(community.getCreatorId());
-                    creator.ifPresent(user -> dto.setCreatorName(user.getFullName()));
-                    
-                    // Set membership status
-                    dto.setMember(true);
-                    dto.setModerator(community.isModerator(userId));
-                    
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        Query query = listQuery(Criteria.where("members").is(userId)).limit(maxPageSize);
+        return toDTOs(mongoTemplate.find(query, Community.class), userId);
     }
     
-    // Join a community
+    // Join a community. The response is built from the updated document, read without its id sets
     public CommunityDTO joinCommunity(String communityId, String userId) {
-        Optional<Community> communityOpt = communityRepository.findById(communityId);
+        Community community = addMember(communityId, userId);
+        boolean changed = community != null;
+        boolean moderator = false;
         
-        if (communityOpt.isPresent()) {
-            Community community = communityOpt.get();
-            community.addMember(userId);
-            Community savedCommunity = communityRepository.save(community);
-            
-            CommunityDTO dto = new CommunityDTO(savedCommunity);
-            
-            // Set creator name
-            Optional<User> creator = userRepository.findById(community.getCreatorId());
-            creator.ifPresent(user -> dto.setCreatorName(user.getFullName()));
-            
-            // Set membership status
-            dto.setMember(true);
-            dto.setModerator(community.isModerator(userId));
-            
-            return dto;
+        if (!changed) {
+            // Already a member, or no such community
+            Query query = new Query(Criteria.where("id").is(communityId));
+            query.fields().exclude(LIST_EXCLUDED_FIELDS);
+            community = mongoTemplate.findOne(query, Community.class);
+            if (community == null) {
+                return null;
+            }
+            moderator = mongoTemplate.exists(new Query(Criteria.where("id").is(communityId)
+                    .and("moderators").is(userId)), Community.class);
         }
         
-        return null;
+        CommunityDTO dto = new CommunityDTO(community);
+        dto.setMembers(null);
+        dto.setModerators(null);
+        dto.setPosts(null);
+        
+        // Set creator name
+        dto.setCreatorName(displayNameResolver.userName(community.getCreatorId()));
+        
+        // Set membership status; a user who was not a member cannot have been a moderator
+        dto.setMember(true);
+        dto.setModerator(moderator);
+        dto.setChanged(changed);
+        
+        return dto;
     }
     
-    // Leave a community
+    // Leave a community. False when the community does not exist or the user created it
     public boolean leaveCommunity(String communityId, String userId) {
-        Optional<Community> communityOpt = communityRepository.findById(communityId);
-        
-        if (communityOpt.isPresent()) {
-            Community community = communityOpt.get();
-            
-            // Creator cannot leave their own community
-            if (community.getCreatorId().equals(userId)) {
-                return false;
-            }
-            
-            community.removeMember(userId);
-            communityRepository.save(community);
+        if (removeMember(communityId, userId)) {
             return true;
         }
         
-        return false;
+        // Nothing was removed: fine if the user simply was not a member
+        Query allowed = new Query(Criteria.where("id").is(communityId).and("creatorId").ne(userId));
+        return mongoTemplate.exists(allowed, Community.class);
+    }
+    
+    /**
+     * Add the user to the members in one guarded update, counting them only if they were not
+     * a member yet. Concurrent joins cannot overwrite each other. Returns the updated community
+     * without its id sets, or null when nothing changed (already a member, or no such community).
+     */
+    public Community addMember(String communityId, String userId) {
+        Query query = new Query(Criteria.where("id").is(communityId).and("members").ne(userId));
+        query.fields().exclude(LIST_EXCLUDED_FIELDS);
+        Update update = new Update().addToSet("members", userId).inc("memberCount", 1);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Community.class);
+    }
+    
+    /**
+     * Remove a member, and their moderator role, in one guarded update. The creator cannot
+     * leave their own community. Returns whether the user was removed.
+     */
+    public boolean removeMember(String communityId, String userId) {
+        Query query = new Query(Criteria.where("id").is(communityId)
+                .and("members").is(userId)
+                .and("creatorId").ne(userId));
+        Update update = new Update().pull("members", userId).pull("moderators", userId).inc("memberCount", -1);
+        return mongoTemplate.updateFirst(query, update, Community.class).getModifiedCount() > 0;
     }
     
     // Add a moderator to a community
@@ -185,12 +203,10 @@ public class CommunityService {
             
             // Only creator or existing moderators can add new moderators
             if (community.getCreatorId().equals(currentUserId) || community.isModerator(currentUserId)) {
-                // User must be a member before becoming a moderator
-                if (community.isMember(userId)) {
-                    community.addModerator(userId);
-                    communityRepository.save(community);
-                    return true;
-                }
+                // User must be a member before becoming a moderator; checked in the update itself
+                Query query = new Query(Criteria.where("id").is(communityId).and("members").is(userId));
+                return mongoTemplate.updateFirst(query, new Update().addToSet("moderators", userId), Community.class)
+                        .getMatchedCount() > 0;
             }
         }
         
@@ -208,8 +224,8 @@ public class CommunityService {
             if (community.getCreatorId().equals(currentUserId)) {
                 // Creator cannot remove themselves as moderator
                 if (!userId.equals(community.getCreatorId())) {
-                    community.removeModerator(userId);
-                    communityRepository.save(community);
+                    mongoTemplate.updateFirst(new Query(Criteria.where("id").is(communityId)),
+                            new Update().pull("moderators", userId), Community.class);
                     return true;
                 }
             }
@@ -234,12 +250,18 @@ public class CommunityService {
                 community.setCoverImage(updatedCommunity.getCoverImage());
                 community.setPrivate(updatedCommunity.isPrivate());
                 
-                Community savedCommunity = communityRepository.save(community);
-                CommunityDTO dto = new CommunityDTO(savedCommunity);
+                // Only the edited fields are written, so concurrent joins and leaves are kept
+                Update update = new Update()
+                        .set("name", community.getName())
+                        .set("description", community.getDescription())
+                        .set("category", community.getCategory())
+                        .set("coverImage", community.getCoverImage())
+                        .set("isPrivate", community.isPrivate());
+                mongoTemplate.updateFirst(new Query(Criteria.where("id").is(communityId)), update, Community.class);
+                CommunityDTO dto = new CommunityDTO(community);
                 
                 // Set creator name
-                Optional<User> creator = userRepository.findById(community.getCreatorId());
-                creator.ifPresent(user -> dto.setCreatorName(user.getFullName()));
+                dto.setCreatorName(displayNameResolver.userName(community.getCreatorId()));
                 
                 // Set membership status
                 dto.setMember(community.isMember(currentUserId));
@@ -269,43 +291,125 @@ public class CommunityService {
         return false;
     }
     
-    // Search communities
+    // Search communities: the best matches, at most one maximum-size page of them
     public List<CommunityDTO> searchCommunities(String searchTerm, String currentUserId) {
-        List<Community> nameResults = communityRepository.findByNameContainingIgnoreCase(searchTerm);
-        List<Community> descriptionResults = communityRepository.findByDescriptionContainingIgnoreCase(searchTerm);
-        List<Community> categoryResults = communityRepository.findByCategoryContainingIgnoreCase(searchTerm);
-        
-        // Combine results and remove duplicates
-        List<Community> combinedResults = nameResults.stream()
-                .distinct()
-                .filter(community -> !descriptionResults.contains(community) && !categoryResults.contains(community))
-                .collect(Collectors.toList());
-        
-        combinedResults.addAll(descriptionResults.stream()
-                .distinct()
-                .filter(community -> !categoryResults.contains(community))
-                .collect(Collectors.toList()));
+        if (searchTerm == null || searchTerm.isBlank()) {
+            return List.of();
+        }
+        return toDTOs(mongoTemplate.find(textQuery(searchTerm).limit(maxPageSize), Community.class), currentUserId);
+    }
+    
+    // Search communities one page at a time, best first
+    public CommunityPageDTO searchCommunities(String searchTerm, String currentUserId, Integer page, Integer size) {
+        if (searchTerm == null || searchTerm.isBlank()) {
+            return toPage(null, currentUserId, page, size);
+        }
+        return toPage(textQuery(searchTerm), currentUserId, page, size);
+    }
+    
+    /**
+     * Set memberCount from the members set on communities written before the counter existed.
+     */
+    public long backfillMemberCounts() {
+        Query query = new Query(Criteria.where("memberCount").exists(false));
+        AggregationUpdate update = AggregationUpdate.update()
+                .set("memberCount").toValue(ArrayOperators.Size.lengthOfArray(
+                        ConditionalOperators.ifNull("members").then(List.of())));
+        return mongoTemplate.updateMulti(query, update, Community.class).getModifiedCount();
+    }
+    
+    /**
+     * Set postCount from the posts set on communities written before the counter existed.
+     */
+    public long backfillPostCounts() {
+        Query query = new Query(Criteria.where("postCount").exists(false));
+        AggregationUpdate update = AggregationUpdate.update()
+                .set("postCount").toValue(ArrayOperators.Size.lengthOfArray(
+                        ConditionalOperators.ifNull("posts").then(List.of())));
+        return mongoTemplate.updateMulti(query, update, Community.class).getModifiedCount();
+    }
+    
+    // One query on the weighted text index (name, category, description), ranked by text score
+    private Query textQuery(String searchTerm) {
+        Query query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(searchTerm))
+                .sortByScore();
+        query.fields().exclude(LIST_EXCLUDED_FIELDS);
+        return query;
+    }
+    
+    // Newest first, without the id sets
+    private Query listQuery(Criteria criteria) {
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id")));
+        query.fields().exclude(LIST_EXCLUDED_FIELDS);
+        return query;
+    }
+    
+    // One page of the query's results; a null query is an empty page
+    private CommunityPageDTO toPage(Query query, String currentUserId, Integer page, Integer size) {
+        int pageNumber = page == null || page < 0 ? 0 : page;
+        int pageSize = size == null || size <= 0 ? defaultPageSize : Math.min(size, maxPageSize);
+        if (query == null) {
+            return CommunityPageDTO.builder().page(pageNumber).size(pageSize).build();
+        }
         
-        combinedResults.addAll(categoryResults.stream()
-                .distinct()
-                .collect(Collectors.toList()));
+        query.skip((long) pageNumber * pageSize).limit(pageSize + 1);
+        List<Community> communities = mongoTemplate.find(query, Community.class);
+        boolean hasMore = communities.size() > pageSize;
+        if (hasMore) {
+            communities = communities.subList(0, pageSize);
+        }
         
-        return combinedResults.stream()
+        return CommunityPageDTO.builder()
+                .communities(toDTOs(communities, currentUserId))
+                .page(pageNumber)
+                .size(pageSize)
+                .hasMore(hasMore)
+                .build();
+    }
+    
+    // Creator names for the whole list are resolved with one query
+    private List<CommunityDTO> toDTOs(List<Community> communities, String currentUserId) {
+        Map<String, String> creatorNames = displayNameResolver.userNames(
+                communities.stream().map(Community::getCreatorId).collect(Collectors.toList()));
+        Map<String, Community> membership = membership(communities, currentUserId);
+        return communities.stream()
                 .map(community -> {
                     CommunityDTO dto = new CommunityDTO(community);
-                    
-                    // Set creator name
-                    Optional<User> creator = userRepository.findById(community.getCreatorId());
-                    creator.ifPresent(user -> dto.setCreatorName(user.getFullName()));
+                    dto.setCreatorName(creatorNames.get(community.getCreatorId()));
+                    // The id sets are not loaded for lists; empty sets would read as "no members"
+                    dto.setMembers(null);
+                    dto.setModerators(null);
+                    dto.setPosts(null);
                     
                     // Set membership status for current user
                     if (currentUserId != null) {
-                        dto.setMember(community.isMember(currentUserId));
-                        dto.setModerator(community.isModerator(currentUserId));
+                        Community flags = membership.get(community.getId());
+                        dto.setMember(flags != null && flags.isMember(currentUserId));
+                        dto.setModerator(flags != null && flags.isModerator(currentUserId));
                     }
                     
                     return dto;
                 })
                 .collect(Collectors.toList());
     }
+    
+    /**
+     * The user's membership in each of the given communities, in one query. The $elemMatch
+     * projections return at most the user's own entry of each set, never the whole set.
+     */
+    private Map<String, Community> membership(List<Community> communities, String userId) {
+        if (userId == null || communities.isEmpty()) {
+            return Map.of();
+        }
+        
+        List<String> ids = communities.stream().map(Community::getId).collect(Collectors.toList());
+        Query query = new Query(Criteria.where("id").in(ids));
+        query.fields()
+                .include("id")
+                .elemMatch("members", Criteria.where("$eq").is(userId))
+                .elemMatch("moderators", Criteria.where("$eq").is(userId));
+        return mongoTemplate.find(query, Community.class).stream()
+                .collect(Collectors.toMap(Community::getId, Function.identity()));
+    }
 }
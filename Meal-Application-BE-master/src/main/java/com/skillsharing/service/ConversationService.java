@@ -0,0 +1,218 @@
+package com.skillsharing.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.skillsharing.dto.ConversationDTO;
+import com.skillsharing.dto.ConversationPageDTO;
+import com.skillsharing.model.Conversation;
+import com.skillsharing.model.Message;
+import com.skillsharing.model.User;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Maintains one summary document per pair of users so the inbox is a single indexed query
+ * over conversations instead of a scan of every message the user has exchanged.
+ */
+@Service
+@RequiredArgsConstructor
+public class ConversationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversationService.class);
+    private static final int WRITE_BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.conversations.page-size:20}")
+    private int defaultPageSize;
+
+    @Value("${app.conversations.max-page-size:100}")
+    private int maxPageSize;
+
+    // Order-independent key for the two participants
+    public static String pairKey(String userId, String otherUserId) {
+        return userId.compareTo(otherUserId) <= 0
+            ? userId + "_" + otherUserId
+            : otherUserId + "_" + userId;
+    }
+
+    /**
+     * Record a sent message: one upsert sets the last message and bumps the receiver's unread count.
+     */
+    public void recordMessage(Message message) {
+        String key = pairKey(message.getSenderId(), message.getReceiverId());
+        Update update = new Update()
+            .set("participants", participants(message.getSenderId(), message.getReceiverId()))
+            .set("lastMessage", message)
+            .set("lastMessageAt", message.getCreatedAt())
+            .inc("unreadCounts." + message.getReceiverId(), 1L);
+        if (!message.getSenderId().equals(message.getReceiverId())) {
+            // Makes sure the sender's side exists without changing it
+            update.inc("unreadCounts." + message.getSenderId(), 0L);
+        }
+        mongoTemplate.upsert(new Query(Criteria.where("id").is(key)), update, Conversation.class);
+    }
+
+    // The user has read readCount of the partner's messages, all sent at or before upTo
+    public void markRead(String userId, String partnerId, long readCount, LocalDateTime upTo) {
+        String key = pairKey(userId, partnerId);
+        mongoTemplate.updateFirst(
+            new Query(Criteria.where("id").is(key)),
+            new Update().inc("unreadCounts." + userId, -readCount),
+            Conversation.class);
+        // The preview only changes when the last message is one of those the user just read
+        mongoTemplate.updateFirst(
+            new Query(Criteria.where("id").is(key)
+                .and("lastMessage.receiverId").is(userId)
+                .and("lastMessage.read").is(false)
+                .and("lastMessage.createdAt").lte(upTo)),
+            new Update().set("lastMessage.read", true),
+            Conversation.class);
+    }
+
+    /**
+     * One page of the user's inbox, most recently active first. A null limit returns every
+     * conversation, which is what the unpaged endpoint has always done.
+     */
+    public ConversationPageDTO getInbox(String userId, String cursor, Integer limit) {
+        Query query = new Query(Criteria.where("participants").is(userId));
+        if (cursor != null && !cursor.isEmpty()) {
+            FeedService.FeedCursor inboxCursor = FeedService.decodeCursor(cursor);
+            query.addCriteria(new Criteria().orOperator(
+                Criteria.where("lastMessageAt").lt(inboxCursor.createdAt()),
+                new Criteria().andOperator(
+                    Criteria.where("lastMessageAt").is(inboxCursor.createdAt()),
+                    Criteria.where("id").lt(inboxCursor.id())
+                )
+            ));
+        }
+        query.with(Sort.by(Sort.Direction.DESC, "lastMessageAt").and(Sort.by(Sort.Direction.DESC, "id")));
+
+        Integer pageSize = limit == null ? null : limit <= 0 ? defaultPageSize : Math.min(limit, maxPageSize);
+        if (pageSize != null) {
+            query.limit(pageSize + 1);
+        }
+
+        List<Conversation> conversations = mongoTemplate.find(query, Conversation.class);
+        boolean hasMore = pageSize != null && conversations.size() > pageSize;
+        if (hasMore) {
+            conversations = conversations.subList(0, pageSize);
+        }
+
+        Conversation last = conversations.isEmpty() ? null : conversations.get(conversations.size() - 1);
+        return ConversationPageDTO.builder()
+            .conversations(toDTOs(userId, conversations))
+            .nextCursor(hasMore ? FeedService.encodeCursor(last.getLastMessageAt(), last.getId()) : null)
+            .hasMore(hasMore)
+            .build();
+    }
+
+    /**
+     * Build summaries for messages sent before the conversations collection existed.
+     * Only runs while the collection is empty; every value is set rather than incremented,
+     * so running it again is harmless.
+     */
+    public long backfillConversations() {
+        if (mongoTemplate.estimatedCount(Conversation.class) > 0
+                || !mongoTemplate.exists(new Query(), Message.class)) {
+            return 0;
+        }
+
+        Map<String, Conversation> summaries = new HashMap<>();
+        Query query = new Query().with(Sort.by(Sort.Direction.ASC, "createdAt"));
+        try (Stream<Message> messages = mongoTemplate.stream(query, Message.class)) {
+            messages.forEach(message -> {
+                Conversation summary = summaries.computeIfAbsent(
+                    pairKey(message.getSenderId(), message.getReceiverId()),
+                    key -> Conversation.builder()
+                        .id(key)
+                        .participants(participants(message.getSenderId(), message.getReceiverId()))
+                        .build());
+                summary.setLastMessage(message);
+                summary.setLastMessageAt(message.getCreatedAt());
+                summary.getUnreadCounts().putIfAbsent(message.getSenderId(), 0L);
+                summary.getUnreadCounts().merge(message.getReceiverId(), message.isRead() ? 0L : 1L, Long::sum);
+            });
+        }
+
+        List<Conversation> all = new ArrayList<>(summaries.values());
+        for (int start = 0; start < all.size(); start += WRITE_BATCH_SIZE) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Conversation.class);
+            for (Conversation summary : all.subList(start, Math.min(start + WRITE_BATCH_SIZE, all.size()))) {
+                bulk.upsert(
+                    new Query(Criteria.where("id").is(summary.getId())),
+                    new Update()
+                        .set("participants", summary.getParticipants())
+                        .set("lastMessage", summary.getLastMessage())
+                        .set("lastMessageAt", summary.getLastMessageAt())
+                        .set("unreadCounts", summary.getUnreadCounts()));
+            }
+            bulk.execute();
+        }
+
+        logger.info("Built {} conversation summaries from existing messages", all.size());
+        return all.size();
+    }
+
+    // Partners are loaded with one query for the whole page
+    private List<ConversationDTO> toDTOs(String userId, List<Conversation> conversations) {
+        Set<String> partnerIds = conversations.stream()
+            .map(conversation -> partnerOf(conversation, userId))
+            .collect(Collectors.toSet());
+
+        Query partnerQuery = new Query(Criteria.where("id").in(partnerIds));
+        partnerQuery.fields().include("id", "username", "firstName", "lastName", "profilePicture");
+        Map<String, User> partners = mongoTemplate.find(partnerQuery, User.class).stream()
+            .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        List<ConversationDTO> dtos = new ArrayList<>();
+        for (Conversation conversation : conversations) {
+            User partner = partners.get(partnerOf(conversation, userId));
+            if (partner == null) {
+                continue;
+            }
+            dtos.add(ConversationDTO.builder()
+                .userId(partner.getId())
+                .username(partner.getUsername())
+                .firstName(partner.getFirstName())
+                .lastName(partner.getLastName())
+                .profilePicture(partner.getProfilePicture())
+                .latestMessage(conversation.getLastMessage())
+                .unreadCount(Math.max(0, conversation.getUnreadCounts().getOrDefault(userId, 0L)))
+                .build());
+        }
+        return dtos;
+    }
+
+    private String partnerOf(Conversation conversation, String userId) {
+        return conversation.getParticipants().stream()
+            .filter(id -> !id.equals(userId))
+            .findFirst()
+            .orElse(userId);
+    }
+
+    private List<String> participants(String userId, String otherUserId) {
+        return userId.compareTo(otherUserId) <= 0
+            ? List.of(userId, otherUserId)
+            : List.of(otherUserId, userId);
+    }
+}
@@ -0,0 +1,110 @@
+package com.skillsharing.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import com.skillsharing.model.Community;
+import com.skillsharing.model.User;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Display names for the users and communities referenced by a list of DTOs.
+ *
+ * All ids of one kind are fetched with a single $in query projected to the name fields.
+ * Within an HTTP request the results are memoized, so a name already resolved is not
+ * fetched again by a later call in the same request.
+ */
+@Service
+@RequiredArgsConstructor
+public class DisplayNameResolver {
+
+    private static final String MEMO_ATTRIBUTE = DisplayNameResolver.class.getName() + ".memo";
+    // Marks ids that were looked up and not found, so they are not looked up again
+    private static final String MISSING = "";
+
+    private final MongoTemplate mongoTemplate;
+
+    // Full names by user id; users that do not exist are left out
+    public Map<String, String> userNames(Collection<String> userIds) {
+        return resolve("user:", userIds, ids -> {
+            Query query = new Query(Criteria.where("id").in(ids));
+            query.fields().include("id", "firstName", "lastName", "username");
+            return mongoTemplate.find(query, User.class).stream()
+                .filter(user -> user.getFullName() != null)
+                .collect(Collectors.toMap(User::getId, User::getFullName));
+        });
+    }
+
+    // Community names by community id; communities that do not exist are left out
+    public Map<String, String> communityNames(Collection<String> communityIds) {
+        return resolve("community:", communityIds, ids -> {
+            Query query = new Query(Criteria.where("id").in(ids));
+            query.fields().include("id", "name");
+            return mongoTemplate.find(query, Community.class).stream()
+                .filter(community -> community.getName() != null)
+                .collect(Collectors.toMap(Community::getId, Community::getName));
+        });
+    }
+
+    public String userName(String userId) {
+        return userId == null ? null : userNames(List.of(userId)).get(userId);
+    }
+
+    public String communityName(String communityId) {
+        return communityId == null ? null : communityNames(List.of(communityId)).get(communityId);
+    }
+
+    private Map<String, String> resolve(String prefix, Collection<String> ids,
+                                        Function<Set<String>, Map<String, String>> loader) {
+        Map<String, String> memo = memo();
+        Set<String> wanted = ids.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<String> missing = wanted.stream()
+            .filter(id -> !memo.containsKey(prefix + id))
+            .collect(Collectors.toSet());
+
+        if (!missing.isEmpty()) {
+            Map<String, String> loaded = loader.apply(missing);
+            for (String id : missing) {
+                memo.put(prefix + id, loaded.getOrDefault(id, MISSING));
+            }
+        }
+
+        Map<String, String> names = new HashMap<>();
+        for (String id : wanted) {
+            String name = memo.get(prefix + id);
+            if (name != null && !MISSING.equals(name)) {
+                names.put(id, name);
+            }
+        }
+        return names;
+    }
+
+    // The current request's memo, or a throwaway one outside a request
+    @SuppressWarnings("unchecked")
+    private Map<String, String> memo() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return new HashMap<>();
+        }
+        Map<String, String> memo = (Map<String, String>) attributes.getAttribute(MEMO_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (memo == null) {
+            memo = new HashMap<>();
+            attributes.setAttribute(MEMO_ATTRIBUTE, memo, RequestAttributes.SCOPE_REQUEST);
+        }
+        return memo;
+    }
+}
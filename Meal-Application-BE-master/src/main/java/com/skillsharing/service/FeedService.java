@@ -0,0 +1,207 @@
+package com.skillsharing.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.skillsharing.dto.FeedPageDTO;
+import com.skillsharing.model.Post;
+import com.skillsharing.model.TimelineEntry;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Builds the home feed one page at a time using a keyset cursor on (createdAt, id),
+ * so the cost of a request depends on the page size rather than on how many posts
+ * the followed accounts have written.
+ */
+@Service
+@RequiredArgsConstructor
+public class FeedService {
+
+    private static final String CURSOR_SEPARATOR = "|";
+
+    private final MongoTemplate mongoTemplate;
+    private final TimelineService timelineService;
+    private final FollowService followService;
+
+    @Value("${app.feed.page-size:20}")
+    private int defaultPageSize;
+
+    @Value("${app.feed.max-page-size:100}")
+    private int maxPageSize;
+
+    /**
+     * One page of the user's home feed. Reads the precomputed timeline when it is enabled,
+     * merging in posts of followed accounts that are too large to fan out on write.
+     */
+    public FeedPageDTO getFeedPage(String userId, String cursor, Integer limit) {
+        int pageSize = resolvePageSize(limit);
+        FeedCursor feedCursor = cursor != null && !cursor.isEmpty() ? decodeCursor(cursor) : null;
+
+        if (!timelineService.isEnabled()) {
+            return toPage(findPosts(authorIds(userId), feedCursor, pageSize + 1), pageSize);
+        }
+
+        // The follow list is only read to seed an empty timeline or once the timeline runs out
+        Set<String> authorIds = null;
+        if (feedCursor == null && !timelineService.hasTimeline(userId)) {
+            authorIds = authorIds(userId);
+            timelineService.seed(userId, authorIds);
+        }
+
+        List<TimelineEntry> entries = timelineService.findEntries(userId, feedCursor, pageSize + 1);
+
+        // Once the timeline runs out (entries expire), the rest of the feed is read from posts;
+        // until then only the followed authors that are not fanned out on write are merged in
+        boolean timelineExhausted = entries.size() <= pageSize;
+        Set<String> readAuthors;
+        if (timelineExhausted) {
+            readAuthors = authorIds != null ? authorIds : authorIds(userId);
+        } else {
+            readAuthors = followService.followedAmong(userId, timelineService.getFanOutOnReadAuthors());
+        }
+        List<Post> readPosts = readAuthors.isEmpty()
+            ? List.of()
+            : findPosts(readAuthors, feedCursor, pageSize + 1);
+
+        // Merge both sources in (createdAt, id) order, dropping duplicates; unfollows already removed their entries
+        Map<String, TimelineEntry> candidates = new LinkedHashMap<>();
+        for (TimelineEntry entry : entries) {
+            candidates.putIfAbsent(entry.getPostId(), entry);
+        }
+        Map<String, Post> postsById = new HashMap<>();
+        for (Post post : readPosts) {
+            postsById.put(post.getId(), post);
+            candidates.putIfAbsent(post.getId(), TimelineEntry.builder()
+                .postId(post.getId())
+                .authorId(post.getAuthorId())
+                .createdAt(post.getCreatedAt())
+                .build());
+        }
+
+        List<TimelineEntry> ordered = candidates.values().stream()
+            .sorted(Comparator.comparing(TimelineEntry::getCreatedAt)
+                .thenComparing(TimelineEntry::getPostId)
+                .reversed())
+            .collect(Collectors.toList());
+
+        boolean hasMore = ordered.size() > pageSize || entries.size() > pageSize || readPosts.size() > pageSize;
+        if (ordered.size() > pageSize) {
+            ordered = ordered.subList(0, pageSize);
+        }
+
+        List<String> missingIds = ordered.stream()
+            .map(TimelineEntry::getPostId)
+            .filter(id -> !postsById.containsKey(id))
+            .collect(Collectors.toList());
+        if (!missingIds.isEmpty()) {
+            mongoTemplate.find(new Query(Criteria.where("id").in(missingIds)), Post.class)
+                .forEach(post -> postsById.put(post.getId(), post));
+        }
+
+        // Posts deleted since they were fanned out are simply dropped from the page
+        List<Post> posts = ordered.stream()
+            .map(entry -> postsById.get(entry.getPostId()))
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+
+        // The cursor follows the timeline, not the surviving posts, so gaps never end the feed early
+        TimelineEntry last = ordered.isEmpty() ? null : ordered.get(ordered.size() - 1);
+        return FeedPageDTO.builder()
+            .posts(posts)
+            .nextCursor(hasMore && last != null ? encodeCursor(last.getCreatedAt(), last.getPostId()) : null)
+            .hasMore(hasMore && last != null)
+            .build();
+    }
+
+    // The user and every account they follow
+    private Set<String> authorIds(String userId) {
+        Set<String> authorIds = new HashSet<>(followService.getFollowingIds(userId));
+        authorIds.add(userId);
+        return authorIds;
+    }
+
+    private List<Post> findPosts(Collection<String> authorIds, FeedCursor cursor, int limit) {
+        Query query = new Query(Criteria.where("authorId").in(authorIds));
+        if (cursor != null) {
+            query.addCriteria(afterCursor(cursor));
+        }
+        query.with(Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id")));
+        query.limit(limit);
+        return mongoTemplate.find(query, Post.class);
+    }
+
+    // Callers fetch one extra post to find out whether another page exists
+    private FeedPageDTO toPage(List<Post> posts, int pageSize) {
+        boolean hasMore = posts.size() > pageSize;
+        if (hasMore) {
+            posts = posts.subList(0, pageSize);
+        }
+
+        String nextCursor = hasMore ? encodeCursor(posts.get(posts.size() - 1)) : null;
+
+        return FeedPageDTO.builder()
+            .posts(posts)
+            .nextCursor(nextCursor)
+            .hasMore(hasMore)
+            .build();
+    }
+
+    public int resolvePageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(limit, maxPageSize);
+    }
+
+    // Posts strictly older than the cursor, using the id to break ties on createdAt
+    private Criteria afterCursor(FeedCursor cursor) {
+        return new Criteria().orOperator(
+            Criteria.where("createdAt").lt(cursor.createdAt()),
+            new Criteria().andOperator(
+                Criteria.where("createdAt").is(cursor.createdAt()),
+                Criteria.where("id").lt(cursor.id())
+            )
+        );
+    }
+
+    public static String encodeCursor(Post post) {
+        return encodeCursor(post.getCreatedAt(), post.getId());
+    }
+
+    public static String encodeCursor(LocalDateTime createdAt, String id) {
+        String raw = createdAt + CURSOR_SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static FeedCursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(CURSOR_SEPARATOR);
+            return new FeedCursor(LocalDateTime.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public record FeedCursor(LocalDateTime createdAt, String id) {
+    }
+}
@@ -0,0 +1,345 @@
+package com.skillsharing.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.skillsharing.dto.UserPageDTO;
+import com.skillsharing.dto.UserSearchResultDTO;
+import com.skillsharing.model.Follow;
+import com.skillsharing.model.User;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The follow graph. Every follow is one document in the follows collection, unique on
+ * (followerId, followeeId), and the user document only keeps followerCount and
+ * followingCount. Follow and unfollow are a single insert or delete of the edge, and the
+ * counters are only moved when the edge actually changed, so repeating either is a no-op.
+ *
+ * Follower and following lists are read a page at a time from the edges, newest first,
+ * and resolved with one projected $in query per page.
+ */
+@Service
+@RequiredArgsConstructor
+public class FollowService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FollowService.class);
+
+    // Ids per $in query or bulk write when a whole list is processed at once
+    private static final int BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.follows.page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${app.follows.max-page-size:200}")
+    private int maxPageSize;
+
+    /**
+     * Add the edge follower -> followee. Returns false when it already existed.
+     */
+    public boolean follow(String followerId, String followeeId) {
+        try {
+            mongoTemplate.insert(Follow.builder()
+                .followerId(followerId)
+                .followeeId(followeeId)
+                .createdAt(LocalDateTime.now())
+                .build());
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+        adjustCounts(followerId, followeeId, 1);
+        return true;
+    }
+
+    /**
+     * Remove the edge follower -> followee. Returns false when there was none.
+     */
+    public boolean unfollow(String followerId, String followeeId) {
+        long deleted = mongoTemplate.remove(edgeQuery(followerId, followeeId), Follow.class).getDeletedCount();
+        if (deleted == 0) {
+            return false;
+        }
+        adjustCounts(followerId, followeeId, -1);
+        return true;
+    }
+
+    public boolean isFollowing(String followerId, String followeeId) {
+        return mongoTemplate.exists(edgeQuery(followerId, followeeId), Follow.class);
+    }
+
+    // Ids of every account the user follows
+    public Set<String> getFollowingIds(String userId) {
+        return edgeEnds("followerId", userId, "followeeId", Follow::getFolloweeId);
+    }
+
+    // Ids of every follower of the user
+    public Set<String> getFollowerIds(String userId) {
+        return edgeEnds("followeeId", userId, "followerId", Follow::getFollowerId);
+    }
+
+    // Which of the given users the viewer follows
+    public Set<String> followedAmong(String viewerId, Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return Set.of();
+        }
+        Query query = new Query(Criteria.where("followerId").is(viewerId).and("followeeId").in(userIds));
+        query.fields().include("followeeId");
+        return mongoTemplate.find(query, Follow.class).stream()
+            .map(Follow::getFolloweeId)
+            .collect(Collectors.toSet());
+    }
+
+    /**
+     * One page of a user's followers (or followed accounts), most recent follow first.
+     * isFollowing is set for the viewer.
+     */
+    public UserPageDTO getPage(String userId, boolean followers, String viewerId, String cursor, Integer limit) {
+        int pageSize = limit == null || limit <= 0 ? defaultPageSize : Math.min(limit, maxPageSize);
+        String ownerField = followers ? "followeeId" : "followerId";
+
+        Query query = new Query(Criteria.where(ownerField).is(userId));
+        if (cursor != null && !cursor.isEmpty()) {
+            FeedService.FeedCursor followCursor = FeedService.decodeCursor(cursor);
+            query.addCriteria(new Criteria().orOperator(
+                Criteria.where("createdAt").lt(followCursor.createdAt()),
+                new Criteria().andOperator(
+                    Criteria.where("createdAt").is(followCursor.createdAt()),
+                    Criteria.where("id").lt(followCursor.id())
+                )
+            ));
+        }
+        query.with(Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id")));
+        query.limit(pageSize + 1);
+
+        List<Follow> edges = mongoTemplate.find(query, Follow.class);
+        boolean hasMore = edges.size() > pageSize;
+        if (hasMore) {
+            edges = edges.subList(0, pageSize);
+        }
+
+        Follow last = edges.isEmpty() ? null : edges.get(edges.size() - 1);
+        return UserPageDTO.builder()
+            .users(resolve(otherEnds(edges, followers), viewerId))
+            .nextCursor(hasMore ? FeedService.encodeCursor(last.getCreatedAt(), last.getId()) : null)
+            .hasMore(hasMore)
+            .build();
+    }
+
+    // The whole list, most recent follow first, resolved in batches
+    public List<UserSearchResultDTO> getAll(String userId, boolean followers, String viewerId) {
+        Query query = new Query(Criteria.where(followers ? "followeeId" : "followerId").is(userId))
+            .with(Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id")));
+        List<String> ids = otherEnds(mongoTemplate.find(query, Follow.class), followers);
+
+        List<UserSearchResultDTO> users = new ArrayList<>();
+        for (int start = 0; start < ids.size(); start += BATCH_SIZE) {
+            users.addAll(resolve(ids.subList(start, Math.min(start + BATCH_SIZE, ids.size())), viewerId));
+        }
+        return users;
+    }
+
+    /**
+     * Move follower and following sets embedded in user documents into the follows
+     * collection, recompute the counters and drop the embedded sets. Edges are upserted,
+     * so a migration interrupted halfway can simply run again.
+     */
+    public long migrateEmbeddedFollows() {
+        Criteria embedded = new Criteria().orOperator(
+            Criteria.where("followers").exists(true),
+            Criteria.where("following").exists(true));
+        Query query = new Query(embedded);
+        query.fields().include("followers", "following");
+
+        String users = mongoTemplate.getCollectionName(User.class);
+        LocalDateTime now = LocalDateTime.now();
+        List<Follow> pending = new ArrayList<>();
+        long migrated = 0;
+        try (Stream<Document> documents = mongoTemplate.stream(query, Document.class, users)) {
+            for (Document document : (Iterable<Document>) documents::iterator) {
+                String userId = document.get("_id").toString();
+                for (String followeeId : stringList(document, "following")) {
+                    pending.add(Follow.builder().followerId(userId).followeeId(followeeId).createdAt(now).build());
+                }
+                for (String followerId : stringList(document, "followers")) {
+                    pending.add(Follow.builder().followerId(followerId).followeeId(userId).createdAt(now).build());
+                }
+                if (pending.size() >= BATCH_SIZE) {
+                    upsertEdges(pending);
+                    pending.clear();
+                }
+                migrated++;
+            }
+        }
+        if (migrated == 0) {
+            return 0;
+        }
+        upsertEdges(pending);
+
+        recountAll();
+        mongoTemplate.updateMulti(new Query(embedded), new Update().unset("followers").unset("following"), User.class);
+        logger.info("Migrated embedded follows of {} users", migrated);
+        return migrated;
+    }
+
+    /**
+     * Set followerCount and followingCount of every user from the edges themselves; users without edges get 0.
+     * The absolute writes race with concurrent follows, so this only runs inside the one-time migration.
+     */
+    private void recountAll() {
+        recount("followeeId", "followerCount");
+        recount("followerId", "followingCount");
+    }
+
+    private void recount(String groupField, String counterField) {
+        LocalDateTime now = LocalDateTime.now();
+        mongoTemplate.updateMulti(new Query(Criteria.where(counterField).exists(false)),
+            new Update().set(counterField, 0).set("updatedAt", now), User.class);
+
+        Aggregation aggregation = Aggregation.newAggregation(Aggregation.group(groupField).count().as("count"));
+
+        List<Document> counts = mongoTemplate.aggregate(
+            aggregation, mongoTemplate.getCollectionName(Follow.class), Document.class).getMappedResults();
+        for (int start = 0; start < counts.size(); start += BATCH_SIZE) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+            for (Document count : counts.subList(start, Math.min(start + BATCH_SIZE, counts.size()))) {
+                int value = ((Number) count.get("count")).intValue();
+                // Only users whose count actually changes get a new updatedAt, so the suggestion index picks them up
+                bulk.updateOne(
+                    new Query(Criteria.where("id").is(count.getString("_id")).and(counterField).ne(value)),
+                    new Update().set(counterField, value).set("updatedAt", now));
+            }
+            bulk.execute();
+        }
+    }
+
+    /**
+     * Count the edges of users that have no follower or following counter yet (documents written
+     * before the counters existed). Users that already carry both counters are left to $inc.
+     */
+    public long backfillMissingCounts() {
+        Query query = new Query(new Criteria().orOperator(
+            Criteria.where("followerCount").exists(false),
+            Criteria.where("followingCount").exists(false)));
+        query.fields().include("id");
+
+        String follows = mongoTemplate.getCollectionName(Follow.class);
+        long backfilled = 0;
+        for (User user : mongoTemplate.find(query, User.class)) {
+            long followers = mongoTemplate.count(new Query(Criteria.where("followeeId").is(user.getId())), follows);
+            long following = mongoTemplate.count(new Query(Criteria.where("followerId").is(user.getId())), follows);
+            LocalDateTime now = LocalDateTime.now();
+            // Each counter is only set while it is still missing, so a follow that got there first wins
+            mongoTemplate.updateFirst(
+                new Query(Criteria.where("id").is(user.getId()).and("followerCount").exists(false)),
+                new Update().set("followerCount", (int) followers).set("updatedAt", now), User.class);
+            mongoTemplate.updateFirst(
+                new Query(Criteria.where("id").is(user.getId()).and("followingCount").exists(false)),
+                new Update().set("followingCount", (int) following).set("updatedAt", now), User.class);
+            backfilled++;
+        }
+        return backfilled;
+    }
+
+    private void upsertEdges(List<Follow> edges) {
+        if (edges.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Follow.class);
+        for (Follow edge : edges) {
+            bulk.upsert(
+                edgeQuery(edge.getFollowerId(), edge.getFolloweeId()),
+                new Update().setOnInsert("createdAt", edge.getCreatedAt()));
+        }
+        bulk.execute();
+    }
+
+    private void adjustCounts(String followerId, String followeeId, int delta) {
+        LocalDateTime now = LocalDateTime.now();
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class)
+            .updateOne(new Query(Criteria.where("id").is(followerId)),
+                new Update().inc("followingCount", delta).set("updatedAt", now))
+            .updateOne(new Query(Criteria.where("id").is(followeeId)),
+                new Update().inc("followerCount", delta).set("updatedAt", now))
+            .execute();
+    }
+
+    private Set<String> edgeEnds(String ownerField, String userId, String endField, Function<Follow, String> end) {
+        Query query = new Query(Criteria.where(ownerField).is(userId));
+        query.fields().include(endField);
+        return mongoTemplate.find(query, Follow.class).stream()
+            .map(end)
+            .collect(Collectors.toCollection(HashSet::new));
+    }
+
+    private List<String> otherEnds(List<Follow> edges, boolean followers) {
+        return edges.stream()
+            .map(followers ? Follow::getFollowerId : Follow::getFolloweeId)
+            .collect(Collectors.toList());
+    }
+
+    // Users in the given order, projected to the fields shown in user lists
+    private List<UserSearchResultDTO> resolve(List<String> userIds, String viewerId) {
+        if (userIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // Only the fields shown in user lists; never the password hash or learning history
+        Query query = new Query(Criteria.where("id").in(userIds));
+        query.fields().include("id", "username", "firstName", "lastName", "profilePicture", "bio");
+        Map<String, User> usersById = mongoTemplate.find(query, User.class).stream()
+            .collect(Collectors.toMap(User::getId, Function.identity()));
+        Set<String> viewerFollowing = followedAmong(viewerId, userIds);
+
+        return userIds.stream()
+            .map(usersById::get)
+            .filter(Objects::nonNull)
+            .map(user -> UserSearchResultDTO.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .fullName(user.getFullName())
+                .profilePicture(user.getProfilePicture())
+                .bio(user.getBio())
+                .isFollowing(viewerFollowing.contains(user.getId()))
+                .build())
+            .collect(Collectors.toList());
+    }
+
+    private Query edgeQuery(String followerId, String followeeId) {
+        return new Query(Criteria.where("followerId").is(followerId).and("followeeId").is(followeeId));
+    }
+
+    private List<String> stringList(Document document, String field) {
+        List<?> values = document.get(field, List.class);
+        if (values == null) {
+            return List.of();
+        }
+        return values.stream().filter(Objects::nonNull).map(Object::toString).collect(Collectors.toList());
+    }
+}
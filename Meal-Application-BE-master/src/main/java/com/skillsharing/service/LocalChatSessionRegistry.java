@@ -0,0 +1,75 @@
+package com.skillsharing.service;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+/**
+ * Chat sessions of this node. Sessions are wrapped so concurrent sends are serialised and
+ * buffered up to a limit; a session that falls further behind than that is closed.
+ */
+@Service
+public class LocalChatSessionRegistry implements ChatSessionRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalChatSessionRegistry.class);
+
+    private final Map<String, Map<String, WebSocketSession>> sessions = new ConcurrentHashMap<>();
+
+    @Value("${app.chat.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${app.chat.buffer-size-limit:524288}")
+    private int bufferSizeLimit;
+
+    @Override
+    public void register(String userId, WebSocketSession session) {
+        WebSocketSession decorated = new ConcurrentWebSocketSessionDecorator(
+            session, sendTimeLimitMs, bufferSizeLimit, ConcurrentWebSocketSessionDecorator.OverflowStrategy.TERMINATE);
+        sessions.computeIfAbsent(userId, id -> new ConcurrentHashMap<>()).put(session.getId(), decorated);
+    }
+
+    @Override
+    public void unregister(String userId, WebSocketSession session) {
+        sessions.computeIfPresent(userId, (id, userSessions) -> {
+            userSessions.remove(session.getId());
+            return userSessions.isEmpty() ? null : userSessions;
+        });
+    }
+
+    @Override
+    public int sendToUser(String userId, String payload) {
+        Map<String, WebSocketSession> userSessions = sessions.get(userId);
+        if (userSessions == null) {
+            return 0;
+        }
+
+        int delivered = 0;
+        TextMessage message = new TextMessage(payload);
+        for (WebSocketSession session : Set.copyOf(userSessions.values())) {
+            try {
+                if (session.isOpen()) {
+                    session.sendMessage(message);
+                    delivered++;
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.debug("Failed to send chat frame to user {}: {}", userId, e.getMessage());
+                unregister(userId, session);
+            }
+        }
+        return delivered;
+    }
+
+    @Override
+    public boolean isOnline(String userId) {
+        return sessions.containsKey(userId);
+    }
+}
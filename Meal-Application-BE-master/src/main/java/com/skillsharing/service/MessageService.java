@@ -0,0 +1,183 @@
+package com.skillsharing.service;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.StringOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skillsharing.dto.MessagePageDTO;
+import com.skillsharing.model.Message;
+import com.skillsharing.repository.MessageRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Sending, paging and read receipts for direct messages. History is read through the
+ * (pairKey, createdAt, _id) index and receipts are applied with a single multi-update.
+ * New messages and receipts are relayed to the users' live chat sessions whichever
+ * transport they arrived on.
+ */
+@Service
+@RequiredArgsConstructor
+public class MessageService {
+
+    private final MongoTemplate mongoTemplate;
+    private final MessageRepository messageRepository;
+    private final ConversationService conversationService;
+    private final UnreadCounterService unreadCounterService;
+    private final PushService pushService;
+    private final ChatSessionRegistry chatSessionRegistry;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.messages.page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${app.messages.max-page-size:200}")
+    private int maxPageSize;
+
+    public Message send(String senderId, String receiverId, String content) {
+        return sendAndDeliver(senderId, receiverId, content).message();
+    }
+
+    /**
+     * Store a message and hand it to the receiver's live chat sessions. The result says how
+     * many sessions got it, which the chat transport reports back as a delivery ack.
+     */
+    public SendResult sendAndDeliver(String senderId, String receiverId, String content) {
+        Message message = new Message();
+        message.setSenderId(senderId);
+        message.setReceiverId(receiverId);
+        message.setPairKey(ConversationService.pairKey(senderId, receiverId));
+        message.setContent(content);
+        message.setRead(false);
+        message.setCreatedAt(LocalDateTime.now());
+
+        Message savedMessage = messageRepository.save(message);
+        conversationService.recordMessage(savedMessage);
+        unreadCounterService.add(UnreadCounterService.Kind.MESSAGES, receiverId, 1);
+        pushService.send(receiverId, PushService.MESSAGE_EVENT, savedMessage);
+        pushService.sendUnreadDelta(receiverId, UnreadCounterService.Kind.MESSAGES, 1);
+
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("type", "message");
+        frame.put("message", savedMessage);
+        int delivered = chatSessionRegistry.sendToUser(receiverId, toFrame(frame));
+        return new SendResult(savedMessage, delivered);
+    }
+
+    /**
+     * One page of the conversation, oldest first within the page. Without a cursor the page
+     * holds the most recent messages; the cursor walks back towards older ones.
+     */
+    public MessagePageDTO getHistory(String userId, String partnerId, String cursor, Integer limit) {
+        int pageSize = limit == null || limit <= 0 ? defaultPageSize : Math.min(limit, maxPageSize);
+
+        Query query = historyQuery(userId, partnerId);
+        if (cursor != null && !cursor.isEmpty()) {
+            FeedService.FeedCursor messageCursor = FeedService.decodeCursor(cursor);
+            query.addCriteria(new Criteria().orOperator(
+                Criteria.where("createdAt").lt(messageCursor.createdAt()),
+                new Criteria().andOperator(
+                    Criteria.where("createdAt").is(messageCursor.createdAt()),
+                    Criteria.where("id").lt(messageCursor.id())
+                )
+            ));
+        }
+        query.limit(pageSize + 1);
+
+        List<Message> messages = mongoTemplate.find(query, Message.class);
+        boolean hasMore = messages.size() > pageSize;
+        if (hasMore) {
+            messages = messages.subList(0, pageSize);
+        }
+
+        Message oldest = messages.isEmpty() ? null : messages.get(messages.size() - 1);
+        String nextCursor = hasMore ? FeedService.encodeCursor(oldest.getCreatedAt(), oldest.getId()) : null;
+        Collections.reverse(messages);
+
+        return MessagePageDTO.builder()
+            .messages(messages)
+            .nextCursor(nextCursor)
+            .hasMore(hasMore)
+            .build();
+    }
+
+    // The whole conversation, oldest first
+    public List<Message> getFullHistory(String userId, String partnerId) {
+        List<Message> messages = mongoTemplate.find(historyQuery(userId, partnerId), Message.class);
+        Collections.reverse(messages);
+        return messages;
+    }
+
+    /**
+     * Mark every message the partner sent the user up to and including the given time as
+     * read, with one multi-update. Returns the number of messages that changed.
+     */
+    public long markReadUpTo(String userId, String partnerId, LocalDateTime upTo) {
+        Query query = new Query(Criteria.where("pairKey").is(ConversationService.pairKey(userId, partnerId))
+            .and("receiverId").is(userId)
+            .and("read").is(false)
+            .and("createdAt").lte(upTo));
+        long marked = mongoTemplate.updateMulti(query, new Update().set("read", true), Message.class)
+            .getModifiedCount();
+
+        if (marked > 0) {
+            conversationService.markRead(userId, partnerId, marked, upTo);
+            unreadCounterService.add(UnreadCounterService.Kind.MESSAGES, userId, -marked);
+            pushService.sendUnreadDelta(userId, UnreadCounterService.Kind.MESSAGES, -marked);
+
+            // Read receipt for the partner, who sent these messages
+            Map<String, Object> frame = new LinkedHashMap<>();
+            frame.put("type", "read");
+            frame.put("readerId", userId);
+            frame.put("upTo", upTo);
+            chatSessionRegistry.sendToUser(partnerId, toFrame(frame));
+        }
+        return marked;
+    }
+
+    /**
+     * Set pairKey on messages written before the field existed, in one pipeline update.
+     */
+    public long backfillPairKeys() {
+        Query query = new Query(Criteria.where("pairKey").exists(false));
+        AggregationUpdate update = AggregationUpdate.update()
+            .set("pairKey").toValue(ConditionalOperators
+                .when(ComparisonOperators.Lte.valueOf("senderId").lessThanEqualTo("receiverId"))
+                .then(StringOperators.Concat.valueOf("senderId").concat("_").concatValueOf("receiverId"))
+                .otherwise(StringOperators.Concat.valueOf("receiverId").concat("_").concatValueOf("senderId")));
+        return mongoTemplate.updateMulti(query, update, Message.class).getModifiedCount();
+    }
+
+    public String toFrame(Map<String, Object> frame) {
+        try {
+            return objectMapper.writeValueAsString(frame);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialise chat frame", e);
+        }
+    }
+
+    // Newest first, so limits and cursors walk back through the index
+    private Query historyQuery(String userId, String partnerId) {
+        return new Query(Criteria.where("pairKey").is(ConversationService.pairKey(userId, partnerId)))
+            .with(Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id")));
+    }
+
+    public record SendResult(Message message, int deliveredSessions) {
+    }
+}
@@ -0,0 +1,195 @@
+package com.skillsharing.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReturnDocument;
+import com.skillsharing.model.Notification;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Folds notifications of the same kind about the same resource into one document per time
+ * window ("Alice and 41 others liked your post").
+ *
+ * Each group is written with a single upsert on its group key. Actor ids are remembered up to
+ * app.notifications.coalesce.max-tracked-actors, and the count only grows for an actor not
+ * seen yet, so replaying the same event does not inflate it. Once the cap is reached the count
+ * stops growing and the group is marked approximate ("Alice and 99+ others"), which keeps the
+ * document and each write small for a viral post without overstating the number of actors.
+ */
+@Service
+@RequiredArgsConstructor
+public class NotificationCoalescer {
+
+    // Message suffix for each notification type, matching the messages built by the controllers
+    private static final Map<String, String> ACTIONS = Map.of(
+        "LIKE", "liked your post",
+        "COMMENT", "commented on your post",
+        "SHARE", "shared your post",
+        "FOLLOW", "started following you"
+    );
+
+    // Read state of the group before the latest event; a group that did not exist counts as read
+    private static final String PREVIOUSLY_READ = "previouslyRead";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.notifications.coalesce.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.notifications.coalesce.types:LIKE,COMMENT,SHARE}")
+    private Set<String> types;
+
+    @Value("${app.notifications.coalesce.window-minutes:60}")
+    private long windowMinutes;
+
+    @Value("${app.notifications.coalesce.recent-actors:3}")
+    private int recentActors;
+
+    @Value("${app.notifications.coalesce.max-tracked-actors:100}")
+    private int maxTrackedActors;
+
+    public boolean isCoalescable(Notification notification) {
+        return enabled
+            && types.contains(notification.getType())
+            && ACTIONS.containsKey(notification.getType())
+            && notification.getSenderId() != null;
+    }
+
+    /**
+     * Fold each notification into its group. Returns the stored groups, to be pushed under their
+     * own ids, and, per recipient, how many groups became unread: groups that did not exist yet
+     * and groups that had been read. The update records the group's read flag from before the
+     * event in previouslyRead, so counters move by exact deltas.
+     */
+    public GroupedNotifications upsertGroups(List<Notification> notifications) {
+        Map<String, Long> newlyUnread = new HashMap<>();
+        List<Notification> groups = new ArrayList<>();
+        if (notifications.isEmpty()) {
+            return new GroupedNotifications(groups, newlyUnread);
+        }
+
+        MongoCollection<Document> collection =
+            mongoTemplate.getCollection(mongoTemplate.getCollectionName(Notification.class));
+        FindOneAndUpdateOptions options = new FindOneAndUpdateOptions()
+            .upsert(true)
+            .returnDocument(ReturnDocument.AFTER)
+            .projection(Projections.exclude("actorIds"));
+        for (Notification notification : notifications) {
+            Document group = collection.findOneAndUpdate(
+                Filters.eq("groupKey", groupKey(notification)), groupUpdate(notification), options);
+            if (group == null) {
+                continue;
+            }
+            if (Boolean.TRUE.equals(group.getBoolean(PREVIOUSLY_READ))) {
+                newlyUnread.merge(notification.getUserId(), 1L, Long::sum);
+            }
+            groups.add(mongoTemplate.getConverter().read(Notification.class, group));
+        }
+        return new GroupedNotifications(groups, newlyUnread);
+    }
+
+    private String groupKey(Notification notification) {
+        LocalDateTime createdAt = notification.getCreatedAt() != null ? notification.getCreatedAt() : LocalDateTime.now();
+        long windowMillis = windowMinutes * 60_000;
+        long bucket = createdAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() / windowMillis;
+        return String.join("|",
+            notification.getUserId(),
+            notification.getType(),
+            String.valueOf(notification.getResourceId()),
+            String.valueOf(bucket));
+    }
+
+    // Update pipeline: record the actor and bump actorCount if it is new and tracked, then derive the message
+    private List<Bson> groupUpdate(Notification notification) {
+        String senderName = notification.getSenderName() != null ? notification.getSenderName()
+            : notification.getSenderUsername() != null ? notification.getSenderUsername()
+            : "Someone";
+        String action = ACTIONS.get(notification.getType());
+        Object createdAt = mongoTemplate.getConverter().convertToMongoType(
+            notification.getCreatedAt() != null ? notification.getCreatedAt() : LocalDateTime.now());
+
+        Document actor = new Document("id", literal(notification.getSenderId()))
+            .append("username", literal(notification.getSenderUsername()))
+            .append("name", literal(senderName))
+            .append("profilePicture", literal(notification.getSenderProfilePicture()));
+
+        // Expressions in one $set stage all read the document as it was before the stage
+        Document seen = new Document("$in", List.of(literal(notification.getSenderId()), ifNull("$actorIds")));
+        Document full = new Document("$gte", List.of(new Document("$size", ifNull("$actorIds")), maxTrackedActors));
+        // An actor that is neither remembered nor can be any more may or may not have been counted already
+        Document untracked = new Document("$and", List.of(new Document("$not", List.of(seen)), full));
+
+        List<Object> otherRecentActors = List.of(
+            new Document("$filter", new Document("input", ifNull("$recentActors"))
+                .append("cond", new Document("$ne", List.of("$$this.id", literal(notification.getSenderId()))))),
+            List.of(actor));
+
+        Document merge = new Document("userId", literal(notification.getUserId()))
+            .append("type", literal(notification.getType()))
+            .append("resourceId", literal(notification.getResourceId()))
+            .append("groupKey", literal(groupKey(notification)))
+            .append("senderId", literal(notification.getSenderId()))
+            .append("senderUsername", literal(notification.getSenderUsername()))
+            .append("senderProfilePicture", literal(notification.getSenderProfilePicture()))
+            .append("senderName", literal(senderName))
+            .append(PREVIOUSLY_READ, new Document("$ifNull", List.of("$read", true)))
+            .append("read", false)
+            .append("createdAt", createdAt)
+            .append("actorIds", new Document("$cond", List.of(
+                new Document("$or", List.of(seen, full)),
+                ifNull("$actorIds"),
+                new Document("$concatArrays", List.of(ifNull("$actorIds"), List.of(literal(notification.getSenderId())))))))
+            .append("actorCount", new Document("$add", List.of(
+                new Document("$ifNull", List.of("$actorCount", 0)),
+                new Document("$cond", List.of(new Document("$or", List.of(seen, full)), 0, 1)))))
+            .append("actorCountApproximate", new Document("$or", List.of(
+                new Document("$ifNull", List.of("$actorCountApproximate", false)),
+                untracked)))
+            .append("recentActors", new Document("$slice",
+                List.of(new Document("$concatArrays", otherRecentActors), -recentActors)));
+
+        Document others = new Document("$subtract", List.of("$actorCount", 1));
+        Document message = new Document("$cond", List.of(
+            new Document("$gt", List.of("$actorCount", 1)),
+            new Document("$concat", List.of(
+                literal(senderName + " and "),
+                new Document("$toString", others),
+                new Document("$cond", List.of("$actorCountApproximate", "+", "")),
+                new Document("$cond", List.of(new Document("$eq", List.of(others, 1)), " other ", " others ")),
+                literal(action))),
+            literal(senderName + " " + action)));
+
+        return List.of(
+            new Document("$set", merge),
+            new Document("$set", new Document("message", message)));
+    }
+
+    public record GroupedNotifications(List<Notification> groups, Map<String, Long> newlyUnread) {
+    }
+
+    private Document ifNull(String field) {
+        return new Document("$ifNull", List.of(field, List.of()));
+    }
+
+    // User-supplied strings must not be read as field paths or operators
+    private Document literal(Object value) {
+        return new Document("$literal", value);
+    }
+}
@@ -0,0 +1,235 @@
+package com.skillsharing.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.skillsharing.model.Notification;
+import com.skillsharing.model.NotificationOutboxEntry;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Takes notifications off the request thread.
+ *
+ * Publishing appends the notification to the notification_outbox collection on the caller's
+ * thread and then hands it to an in-process queue, so a queued notification is always durable.
+ * A small worker pool drains the queue in batches, inserting each batch into notifications
+ * with one bulk write and removing it from the outbox. Entries left in the outbox by a crash
+ * or a failed write are replayed on startup and periodically, and the shared id makes the
+ * replay idempotent.
+ */
+@Service
+@RequiredArgsConstructor
+public class NotificationDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+    private static final int DUPLICATE_KEY_ERROR = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final NotificationCoalescer notificationCoalescer;
+    private final UnreadCounterService unreadCounterService;
+    private final PushService pushService;
+
+    @Value("${app.notifications.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.notifications.workers:2}")
+    private int workerCount;
+
+    @Value("${app.notifications.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.notifications.outbox-replay-age-seconds:30}")
+    private long outboxReplayAgeSeconds;
+
+    private BlockingQueue<Notification> queue;
+    private ExecutorService workers;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "notification-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            workers.submit(this::runWorker);
+        }
+
+        try {
+            replayOutbox(LocalDateTime.now());
+        } catch (Exception e) {
+            logger.error("Failed to replay notification outbox on startup", e);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+
+        // Flush whatever is still queued; anything that fails stays in the outbox for the next start
+        List<Notification> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            write(remaining);
+        }
+    }
+
+    /**
+     * Record a new notification in the outbox and queue it for delivery. Falls back to a direct
+     * write when the queue is full. Throws when the outbox write fails, since nothing was accepted.
+     *
+     * Delivery only inserts, and a notification whose id already exists is skipped as a replay,
+     * so changes to existing notifications (read state, deletes) go through NotificationService.
+     */
+    public void publish(Notification notification) {
+        if (notification.getId() != null) {
+            throw new IllegalArgumentException("Only new notifications can be published, got " + notification.getId());
+        }
+        notification.setId(new ObjectId().toHexString());
+
+        mongoTemplate.insert(NotificationOutboxEntry.builder()
+            .id(notification.getId())
+            .notification(notification)
+            .createdAt(LocalDateTime.now())
+            .build());
+
+        if (!running || !queue.offer(notification)) {
+            logger.warn("Notification queue unavailable, writing notification {} directly", notification.getId());
+            write(List.of(notification));
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private void runWorker() {
+        List<Notification> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Notification first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // The batch is still in the outbox and is picked up by the next replay
+                logger.error("Failed to dispatch {} notifications, leaving them to the outbox replay", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Insert the notifications (or fold them into their groups) and clear their outbox entries
+    private void write(List<Notification> notifications) {
+        Map<Boolean, List<Notification>> partitioned = notifications.stream()
+            .collect(Collectors.partitioningBy(notificationCoalescer::isCoalescable));
+
+        // New unread notifications per recipient, applied to the cached counts and pushed as deltas
+        NotificationCoalescer.GroupedNotifications grouped = notificationCoalescer.upsertGroups(partitioned.get(true));
+        Map<String, Long> unreadDeltas = new HashMap<>(grouped.newlyUnread());
+
+        List<Notification> single = partitioned.get(false);
+        if (!single.isEmpty()) {
+            if (insertIgnoringDuplicates(single, Notification.class)) {
+                single.stream().filter(notification -> !notification.isRead()).forEach(notification ->
+                    unreadDeltas.merge(notification.getUserId(), 1L, Long::sum));
+            } else {
+                // Some were already written by an earlier attempt and counted then
+                single.forEach(notification ->
+                    unreadCounterService.invalidate(UnreadCounterService.Kind.NOTIFICATIONS, notification.getUserId()));
+            }
+        }
+
+        List<String> ids = notifications.stream().map(Notification::getId).collect(Collectors.toList());
+        mongoTemplate.remove(new Query(Criteria.where("id").in(ids)), NotificationOutboxEntry.class);
+        logger.debug("Dispatched {} notifications", notifications.size());
+
+        unreadDeltas.forEach((userId, delta) ->
+            unreadCounterService.add(UnreadCounterService.Kind.NOTIFICATIONS, userId, delta));
+        // Groups are pushed as stored, under their own id, so the client can match them to the list
+        List<Notification> pushed = new ArrayList<>(single);
+        pushed.addAll(grouped.groups());
+        push(pushed, unreadDeltas);
+    }
+
+    private void push(List<Notification> notifications, Map<String, Long> unreadDeltas) {
+        for (Notification notification : notifications) {
+            pushService.send(notification.getUserId(), PushService.NOTIFICATION_EVENT, notification);
+        }
+        unreadDeltas.forEach((userId, delta) ->
+            pushService.sendUnreadDelta(userId, UnreadCounterService.Kind.NOTIFICATIONS, delta));
+    }
+
+    // Returns false when some documents were already there
+    private <T> boolean insertIgnoringDuplicates(List<T> documents, Class<T> type) {
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type).insert(documents).execute();
+            return true;
+        } catch (BulkOperationException e) {
+            // Documents already written by an earlier attempt are fine; anything else is a real failure
+            boolean onlyDuplicates = e.getErrors().stream().allMatch(error -> error.getCode() == DUPLICATE_KEY_ERROR);
+            if (!onlyDuplicates) {
+                throw e;
+            }
+            return false;
+        }
+    }
+
+    // Pick up entries whose batch never completed; fresh ones may still be in flight
+    @Scheduled(fixedDelayString = "${app.notifications.outbox-replay-interval-ms:60000}")
+    public void replayStaleOutbox() {
+        replayOutbox(LocalDateTime.now().minusSeconds(outboxReplayAgeSeconds));
+    }
+
+    private void replayOutbox(LocalDateTime olderThan) {
+        while (true) {
+            Query query = new Query(Criteria.where("createdAt").lte(olderThan))
+                .with(Sort.by(Sort.Direction.ASC, "createdAt"))
+                .limit(batchSize);
+            List<NotificationOutboxEntry> entries = mongoTemplate.find(query, NotificationOutboxEntry.class);
+            if (entries.isEmpty()) {
+                return;
+            }
+
+            logger.info("Replaying {} notifications from the outbox", entries.size());
+            write(entries.stream().map(NotificationOutboxEntry::getNotification).collect(Collectors.toList()));
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.skillsharing.service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.skillsharing.dto.NotificationPageDTO;
+import com.skillsharing.model.Notification;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Paged reads and bulk writes over a user's notifications. Reads use a keyset cursor on
+ * (createdAt, id) backed by the user_created_idx index; writes are single multi-document
+ * updates scoped to the owning user, so ids belonging to someone else are ignored.
+ */
+@Service
+@RequiredArgsConstructor
+public class NotificationService {
+
+    private final MongoTemplate mongoTemplate;
+    private final UnreadCounterService unreadCounterService;
+    private final PushService pushService;
+
+    @Value("${app.notifications.page-size:20}")
+    private int defaultPageSize;
+
+    @Value("${app.notifications.max-page-size:100}")
+    private int maxPageSize;
+
+    /**
+     * One page of the user's notifications, newest first. With a cursor the page continues
+     * below it; with "after" only notifications newer than that cursor are returned, which
+     * lets clients poll without downloading the history again.
+     */
+    public NotificationPageDTO getNotifications(String userId, String cursor, String after, Integer limit, boolean unreadOnly) {
+        int pageSize = limit == null || limit <= 0 ? defaultPageSize : Math.min(limit, maxPageSize);
+
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (unreadOnly) {
+            criteria.and("read").is(false);
+        }
+        Query query = new Query(criteria);
+
+        boolean polling = after != null && !after.isEmpty();
+        if (polling) {
+            FeedService.FeedCursor afterCursor = FeedService.decodeCursor(after);
+            query.addCriteria(new Criteria().orOperator(
+                Criteria.where("createdAt").gt(afterCursor.createdAt()),
+                new Criteria().andOperator(
+                    Criteria.where("createdAt").is(afterCursor.createdAt()),
+                    Criteria.where("id").gt(afterCursor.id())
+                )
+            ));
+            // Oldest new items first, so a capped poll resumes where it left off
+            query.with(Sort.by(Sort.Direction.ASC, "createdAt").and(Sort.by(Sort.Direction.ASC, "id")));
+        } else {
+            if (cursor != null && !cursor.isEmpty()) {
+                FeedService.FeedCursor beforeCursor = FeedService.decodeCursor(cursor);
+                query.addCriteria(new Criteria().orOperator(
+                    Criteria.where("createdAt").lt(beforeCursor.createdAt()),
+                    new Criteria().andOperator(
+                        Criteria.where("createdAt").is(beforeCursor.createdAt()),
+                        Criteria.where("id").lt(beforeCursor.id())
+                    )
+                ));
+            }
+            query.with(Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id")));
+        }
+        query.limit(pageSize + 1);
+        query.fields().exclude("actorIds");
+
+        List<Notification> notifications = mongoTemplate.find(query, Notification.class);
+        boolean hasMore = notifications.size() > pageSize;
+        if (hasMore) {
+            notifications = notifications.subList(0, pageSize);
+        }
+        if (polling) {
+            Collections.reverse(notifications);
+        }
+
+        NotificationPageDTO page = NotificationPageDTO.builder()
+            .notifications(notifications)
+            .hasMore(hasMore)
+            .build();
+        if (!notifications.isEmpty()) {
+            Notification newest = notifications.get(0);
+            Notification oldest = notifications.get(notifications.size() - 1);
+            page.setLatestCursor(FeedService.encodeCursor(newest.getCreatedAt(), newest.getId()));
+            if (hasMore && !polling) {
+                page.setNextCursor(FeedService.encodeCursor(oldest.getCreatedAt(), oldest.getId()));
+            }
+        } else if (polling) {
+            page.setLatestCursor(after);
+        }
+        return page;
+    }
+
+    public long markAsRead(String userId, Collection<String> notificationIds) {
+        if (notificationIds == null || notificationIds.isEmpty()) {
+            return 0;
+        }
+        Query query = new Query(Criteria.where("userId").is(userId)
+            .and("id").in(notificationIds)
+            .and("read").is(false));
+        long updated = mongoTemplate.updateMulti(query, new Update().set("read", true), Notification.class)
+            .getModifiedCount();
+        unreadCounterService.add(UnreadCounterService.Kind.NOTIFICATIONS, userId, -updated);
+        pushService.sendUnreadDelta(userId, UnreadCounterService.Kind.NOTIFICATIONS, -updated);
+        return updated;
+    }
+
+    public long markAllAsRead(String userId) {
+        Query query = new Query(Criteria.where("userId").is(userId).and("read").is(false));
+        long updated = mongoTemplate.updateMulti(query, new Update().set("read", true), Notification.class)
+            .getModifiedCount();
+        unreadCounterService.reset(UnreadCounterService.Kind.NOTIFICATIONS, userId);
+        pushService.sendUnreadCount(userId, UnreadCounterService.Kind.NOTIFICATIONS, 0);
+        return updated;
+    }
+
+    public long clearAll(String userId) {
+        Query query = new Query(Criteria.where("userId").is(userId));
+        long deleted = mongoTemplate.remove(query, Notification.class).getDeletedCount();
+        unreadCounterService.reset(UnreadCounterService.Kind.NOTIFICATIONS, userId);
+        pushService.sendUnreadCount(userId, UnreadCounterService.Kind.NOTIFICATIONS, 0);
+        return deleted;
+    }
+}
@@ -0,0 +1,116 @@
+package com.skillsharing.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.skillsharing.model.Post;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Likes, shares and edits applied with single conditional updates on the post document, so
+ * concurrent requests cannot overwrite each other and the post body is never loaded.
+ */
+@Service
+@RequiredArgsConstructor
+public class PostEngagementService {
+
+    private static final int MAX_TOGGLE_ATTEMPTS = 3;
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Toggle the user's like on a post. Returns null when the post does not exist.
+     */
+    public LikeResult toggleLike(String postId, String userId) {
+        // A concurrent toggle by the same user can make both conditions miss; retry a few times
+        for (int attempt = 0; attempt < MAX_TOGGLE_ATTEMPTS; attempt++) {
+            Post liked = like(postId, userId);
+            if (liked != null) {
+                return new LikeResult(true, liked.getLikeCount(), liked.getAuthorId());
+            }
+
+            Post unliked = unlike(postId, userId);
+            if (unliked != null) {
+                return new LikeResult(false, unliked.getLikeCount(), unliked.getAuthorId());
+            }
+
+            if (!mongoTemplate.exists(new Query(Criteria.where("id").is(postId)), Post.class)) {
+                return null;
+            }
+        }
+
+        throw new IllegalStateException("Could not update like for post " + postId);
+    }
+
+    // $addToSet + $inc, only applied when the user has not liked the post yet
+    public Post like(String postId, String userId) {
+        Query query = new Query(Criteria.where("id").is(postId).and("likes").ne(userId));
+        Update update = new Update().addToSet("likes", userId).inc("likeCount", 1);
+        return mongoTemplate.findAndModify(withCounterFields(query), update, returnNew(), Post.class);
+    }
+
+    // $pull + $inc, only applied when the user currently likes the post
+    public Post unlike(String postId, String userId) {
+        Query query = new Query(Criteria.where("id").is(postId).and("likes").is(userId));
+        Update update = new Update().pull("likes", userId).inc("likeCount", -1);
+        return mongoTemplate.findAndModify(withCounterFields(query), update, returnNew(), Post.class);
+    }
+
+    public boolean addShare(String postId, String userId) {
+        Query query = new Query(Criteria.where("id").is(postId));
+        return mongoTemplate.updateFirst(query, new Update().addToSet("shares", userId), Post.class)
+            .getModifiedCount() > 0;
+    }
+
+    /**
+     * Replace the content, and the media when replaceMedia is set, of the author's own post.
+     * Only the edited fields are written, so likes and comments landing meanwhile are kept.
+     * Returns the updated post, or null when the post does not exist or is not the author's.
+     */
+    public Post edit(String postId, String authorId, String content,
+                     boolean replaceMedia, String mediaUrl, String mediaType) {
+        Query query = new Query(Criteria.where("id").is(postId).and("authorId").is(authorId));
+        Update update = new Update()
+            .set("content", content)
+            .set("edited", true)
+            .set("updatedAt", LocalDateTime.now());
+        if (replaceMedia) {
+            update.set("mediaUrl", mediaUrl).set("mediaType", mediaType);
+        }
+        return mongoTemplate.findAndModify(query, update, returnNew(), Post.class);
+    }
+
+    /**
+     * Set likeCount from the likes array on posts written before the counter existed.
+     */
+    public long backfillLikeCounts() {
+        Query query = new Query(Criteria.where("likeCount").exists(false));
+        AggregationUpdate update = AggregationUpdate.update()
+            .set("likeCount").toValue(ArrayOperators.Size.lengthOfArray(
+                ConditionalOperators.ifNull("likes").then(List.of())));
+        return mongoTemplate.updateMulti(query, update, Post.class).getModifiedCount();
+    }
+
+    private Query withCounterFields(Query query) {
+        query.fields().include("id", "authorId", "likeCount");
+        return query;
+    }
+
+    private FindAndModifyOptions returnNew() {
+        return FindAndModifyOptions.options().returnNew(true);
+    }
+
+    public record LikeResult(boolean liked, int likeCount, String authorId) {
+    }
+}
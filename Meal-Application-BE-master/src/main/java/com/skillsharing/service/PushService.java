@@ -0,0 +1,262 @@
+package com.skillsharing.service;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Server-Sent Events connections per user, used to push new notifications, messages and
+ * unread counts instead of having clients poll for them.
+ *
+ * Every connection has a small bounded buffer drained by a shared sender pool, so a slow
+ * client never blocks the thread that produced the event. A connection whose buffer
+ * overflows, or whose current write has been blocked longer than the send timeout, is
+ * dropped; the client reconnects and reloads its state. The pool grows past its core size
+ * while writes are stuck, so one slow client does not hold up delivery to the others.
+ * Idle connections get a heartbeat comment so proxies keep them open and dead ones are noticed.
+ *
+ * Unread counts are pushed as deltas or known values, never recounted per event.
+ */
+@Service
+@RequiredArgsConstructor
+public class PushService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PushService.class);
+
+    public static final String NOTIFICATION_EVENT = "notification";
+    public static final String MESSAGE_EVENT = "message";
+    public static final String UNREAD_COUNT_EVENT = "unread-count";
+    public static final String UNREAD_DELTA_EVENT = "unread-delta";
+
+    private final UnreadCounterService unreadCounterService;
+    private final Map<String, Set<Connection>> connections = new ConcurrentHashMap<>();
+
+    @Value("${app.push.buffer-size:64}")
+    private int bufferSize;
+
+    @Value("${app.push.connection-timeout-ms:1800000}")
+    private long connectionTimeoutMs;
+
+    @Value("${app.push.sender-threads:4}")
+    private int senderThreads;
+
+    @Value("${app.push.max-sender-threads:32}")
+    private int maxSenderThreads;
+
+    @Value("${app.push.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    private ThreadPoolExecutor senders;
+
+    @PostConstruct
+    public void start() {
+        // No queue: a drain either gets a thread right away or is retried on the next event or heartbeat
+        senders = new ThreadPoolExecutor(senderThreads, maxSenderThreads, 60, TimeUnit.SECONDS,
+            new SynchronousQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "push-sender");
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        connections.values().forEach(userConnections -> userConnections.forEach(Connection::close));
+        senders.shutdown();
+        senders.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    public SseEmitter subscribe(String userId) {
+        SseEmitter emitter = new SseEmitter(connectionTimeoutMs);
+        Connection connection = new Connection(userId, emitter);
+
+        connections.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(connection);
+        emitter.onCompletion(() -> remove(connection));
+        emitter.onTimeout(() -> remove(connection));
+        emitter.onError(error -> remove(connection));
+
+        // Start the client off with the current counts so it does not need a separate request
+        connection.offer(unreadCountEvent(userId));
+        return emitter;
+    }
+
+    public boolean isConnected(String userId) {
+        Set<Connection> userConnections = connections.get(userId);
+        return userConnections != null && !userConnections.isEmpty();
+    }
+
+    public void send(String userId, String eventName, Object data) {
+        Set<Connection> userConnections = connections.get(userId);
+        if (userConnections == null) {
+            return;
+        }
+        for (Connection connection : userConnections) {
+            connection.offer(SseEmitter.event().name(eventName).data(data));
+        }
+    }
+
+    // Tell a connected user that one of their unread counts changed by delta
+    public void sendUnreadDelta(String userId, UnreadCounterService.Kind kind, long delta) {
+        if (userId != null && delta != 0 && isConnected(userId)) {
+            send(userId, UNREAD_DELTA_EVENT, Map.of(countKey(kind), delta));
+        }
+    }
+
+    // Push a count whose value is known without a query, such as zero after mark-all-read
+    public void sendUnreadCount(String userId, UnreadCounterService.Kind kind, long count) {
+        if (userId != null && isConnected(userId)) {
+            send(userId, UNREAD_COUNT_EVENT, Map.of(countKey(kind), count));
+        }
+    }
+
+    public int getConnectionCount() {
+        return connections.values().stream().mapToInt(Set::size).sum();
+    }
+
+    // Drop connections whose current write has been blocked for longer than the send timeout
+    @Scheduled(fixedDelayString = "${app.push.stall-check-interval-ms:2000}")
+    public void dropStalledConnections() {
+        long now = System.currentTimeMillis();
+        for (Set<Connection> userConnections : connections.values()) {
+            for (Connection connection : userConnections) {
+                long started = connection.sendStartedAt;
+                if (started != 0 && now - started > sendTimeoutMs) {
+                    logger.warn("Push to user {} blocked for {} ms, dropping the connection", connection.userId, now - started);
+                    connection.abandon();
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.push.heartbeat-interval-ms:25000}")
+    public void heartbeat() {
+        for (Set<Connection> userConnections : connections.values()) {
+            for (Connection connection : userConnections) {
+                connection.offer(SseEmitter.event().comment("heartbeat"));
+            }
+        }
+    }
+
+    private SseEmitter.SseEventBuilder unreadCountEvent(String userId) {
+        return SseEmitter.event().name(UNREAD_COUNT_EVENT).data(unreadCounts(userId));
+    }
+
+    private static String countKey(UnreadCounterService.Kind kind) {
+        return kind == UnreadCounterService.Kind.NOTIFICATIONS ? "notifications" : "messages";
+    }
+
+    private Map<String, Long> unreadCounts(String userId) {
+        return Map.of(
+            "notifications", unreadCounterService.getUnreadNotifications(userId),
+            "messages", unreadCounterService.getUnreadMessages(userId));
+    }
+
+    private void remove(Connection connection) {
+        connections.computeIfPresent(connection.userId, (id, userConnections) -> {
+            userConnections.remove(connection);
+            return userConnections.isEmpty() ? null : userConnections;
+        });
+    }
+
+    private final class Connection {
+        private final String userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+        // When the write in progress started, 0 while no write is in progress
+        private volatile long sendStartedAt;
+
+        private Connection(String userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            if (closed) {
+                return;
+            }
+            if (!buffer.offer(event)) {
+                logger.warn("Push buffer full for user {}, closing the connection", userId);
+                close();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        // At most one sender drains a connection at a time, which keeps events in order
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // Every sender is busy; the buffered events go out with the next offer
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (!closed && (event = buffer.poll()) != null) {
+                    sendStartedAt = System.currentTimeMillis();
+                    emitter.send(event);
+                    sendStartedAt = 0;
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client went away; the emitter callbacks unregister the connection
+                logger.debug("Push connection for user {} failed: {}", userId, e.getMessage());
+                close();
+            } finally {
+                sendStartedAt = 0;
+                draining.set(false);
+            }
+            // An event may have been offered after the last poll but before the flag was cleared
+            if (!closed && !buffer.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        /**
+         * Stop delivering to a connection whose write is stuck. The emitter is left alone, since
+         * completing it would wait for the blocked write; that write fails once the container
+         * gives up on the socket, and the failure closes the emitter.
+         */
+        void abandon() {
+            closed = true;
+            buffer.clear();
+            remove(this);
+        }
+
+        void close() {
+            closed = true;
+            buffer.clear();
+            remove(this);
+            try {
+                emitter.complete();
+            } catch (Exception e) {
+                logger.debug("Failed to complete push connection for user {}", userId, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.skillsharing.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skillsharing.dto.SuggestionDTO;
+import com.skillsharing.model.User;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Typeahead suggestions served from memory.
+ *
+ * The index is loaded from a disk snapshot on startup when a recent one exists, and
+ * otherwise built from the users collection. User saves are applied as they happen. A
+ * periodic refresh reads only the users whose updatedAt moved since the previous pass,
+ * which picks up follower counts and anything missed, and writes a fresh snapshot when
+ * something changed.
+ */
+@Service
+@RequiredArgsConstructor
+public class SuggestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SuggestionService.class);
+    private static final String[] INDEXED_FIELDS =
+        {"id", "username", "firstName", "lastName", "profilePicture", "followerCount", "skills"};
+    // Re-read a little before the previous pass, for writes stamped just before it that landed after it
+    private static final Duration REFRESH_OVERLAP = Duration.ofSeconds(30);
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.suggest.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.suggest.limit:8}")
+    private int defaultLimit;
+
+    @Value("${app.suggest.max-limit:10}")
+    private int maxLimit;
+
+    @Value("${app.suggest.snapshot-path:data/suggest-index.json.gz}")
+    private String snapshotPath;
+
+    @Value("${app.suggest.snapshot-max-age-minutes:60}")
+    private long snapshotMaxAgeMinutes;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private SuggestionTrie trie;
+    // Users saved while a rebuild is reading Mongo; replayed onto the new index before it is swapped in
+    private List<SuggestionTrie.IndexedUser> savedDuringRebuild;
+    // Start of the last pass over Mongo (or of the one the snapshot came from); null until the index is built
+    private volatile LocalDateTime indexedSince;
+
+    @PostConstruct
+    public void start() {
+        trie = new SuggestionTrie(maxLimit);
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (loadSnapshot()) {
+                refresh();
+            } else {
+                rebuild();
+            }
+        } catch (Exception e) {
+            logger.error("Failed to build the suggestion index on startup", e);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (enabled && indexedSince != null) {
+            writeSnapshot();
+        }
+    }
+
+    public List<SuggestionDTO> suggest(String prefix, Integer limit) {
+        int resultLimit = limit == null || limit <= 0 ? defaultLimit : Math.min(limit, maxLimit);
+        String normalized = SuggestionTrie.normalize(prefix);
+        if (!enabled || normalized.isEmpty()) {
+            return List.of();
+        }
+
+        List<SuggestionTrie.Entry> entries;
+        lock.readLock().lock();
+        try {
+            entries = trie.suggest(normalized, resultLimit);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return entries.stream()
+            .map(entry -> SuggestionDTO.builder()
+                .type(entry.type())
+                .id(entry.id())
+                .label(entry.label())
+                .username(entry.username())
+                .profilePicture(entry.profilePicture())
+                .build())
+            .collect(Collectors.toList());
+    }
+
+    // Called after every user save
+    public void onUserSaved(User user) {
+        if (!enabled || user.getId() == null) {
+            return;
+        }
+        SuggestionTrie.IndexedUser indexed = toIndexed(user);
+        lock.writeLock().lock();
+        try {
+            trie.putUser(indexed);
+            if (savedDuringRebuild != null) {
+                savedDuringRebuild.add(indexed);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Scheduled(
+        fixedDelayString = "${app.suggest.refresh-interval-ms:60000}",
+        initialDelayString = "${app.suggest.refresh-interval-ms:60000}")
+    public void scheduledRefresh() {
+        if (!enabled) {
+            return;
+        }
+        if (indexedSince == null) {
+            // The startup build failed; try the full build again
+            rebuild();
+            writeSnapshot();
+        } else if (refresh() > 0) {
+            writeSnapshot();
+        }
+    }
+
+    /**
+     * Re-index the users written since the previous pass. A user read here can be older than
+     * a save applied meanwhile; the overlap re-reads it on the next pass.
+     */
+    private int refresh() {
+        LocalDateTime started = LocalDateTime.now();
+        Query query = new Query(Criteria.where("updatedAt").gte(indexedSince.minus(REFRESH_OVERLAP)));
+        query.fields().include(INDEXED_FIELDS);
+        List<User> changed = mongoTemplate.find(query, User.class);
+
+        if (!changed.isEmpty()) {
+            lock.writeLock().lock();
+            try {
+                changed.forEach(user -> trie.putUser(toIndexed(user)));
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.debug("Refreshed {} users in the suggestion index", changed.size());
+        }
+        indexedSince = started;
+        return changed.size();
+    }
+
+    private void rebuild() {
+        LocalDateTime started = LocalDateTime.now();
+        lock.writeLock().lock();
+        try {
+            savedDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        SuggestionTrie rebuilt = new SuggestionTrie(maxLimit);
+        try {
+            Query query = new Query();
+            query.fields().include(INDEXED_FIELDS);
+            try (Stream<User> users = mongoTemplate.stream(query, User.class)) {
+                users.forEach(user -> rebuilt.putUser(toIndexed(user)));
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                savedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            savedDuringRebuild.forEach(rebuilt::putUser);
+            savedDuringRebuild = null;
+            trie = rebuilt;
+            indexedSince = started;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Built suggestion index over {} users", rebuilt.size());
+    }
+
+    private boolean loadSnapshot() {
+        Path path = Paths.get(snapshotPath);
+        try {
+            if (!Files.exists(path)
+                || Files.getLastModifiedTime(path).toInstant()
+                    .isBefore(Instant.now().minus(Duration.ofMinutes(snapshotMaxAgeMinutes)))) {
+                return false;
+            }
+
+            Snapshot snapshot;
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(path))) {
+                snapshot = objectMapper.readValue(in, Snapshot.class);
+            }
+            SuggestionTrie loaded = new SuggestionTrie(maxLimit);
+            for (SuggestionTrie.IndexedUser user : snapshot.users()) {
+                loaded.putUser(user);
+            }
+
+            lock.writeLock().lock();
+            try {
+                trie = loaded;
+                indexedSince = snapshot.indexedSince();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.info("Loaded suggestion index over {} users from {}", loaded.size(), path);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not load suggestion snapshot {}, rebuilding from the database", path, e);
+            return false;
+        }
+    }
+
+    // Written to a temporary file and moved into place, so a crash never leaves a partial snapshot
+    private void writeSnapshot() {
+        Snapshot snapshot;
+        lock.readLock().lock();
+        try {
+            snapshot = new Snapshot(indexedSince, new ArrayList<>(trie.users()));
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Path path = Paths.get(snapshotPath).toAbsolutePath();
+        try {
+            Files.createDirectories(path.getParent());
+            Path temp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+                objectMapper.writeValue(out, snapshot);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not write suggestion snapshot {}", path, e);
+        }
+    }
+
+    private SuggestionTrie.IndexedUser toIndexed(User user) {
+        return new SuggestionTrie.IndexedUser(
+            user.getId(),
+            user.getUsername(),
+            user.getFirstName(),
+            user.getLastName(),
+            user.getProfilePicture(),
+            user.getFollowerCount(),
+            user.getSkills() != null ? new ArrayList<>(user.getSkills()) : List.of());
+    }
+
+    // The snapshot file: the indexed users and the refresh point they are current up to
+    record Snapshot(LocalDateTime indexedSince, List<SuggestionTrie.IndexedUser> users) {
+    }
+}
@@ -0,0 +1,293 @@
+package com.skillsharing.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Prefix tree over user names, usernames and skills. Every node caches its best
+ * suggestions, so a lookup is a walk down the prefix and a copy of that list, whatever the
+ * number of indexed users.
+ *
+ * An insert merges the new entry into the cached lists on the paths of its terms. A removal
+ * only rebuilds the lists that held the entry, from the best few of each node's own entries
+ * (kept sorted) and the children's lists, so no step scans every entry under a common word.
+ * Not thread-safe; SuggestionService guards it with a read-write lock.
+ */
+class SuggestionTrie {
+
+    static final String USER = "USER";
+    static final String SKILL = "SKILL";
+
+    private static final Entry[] NONE = new Entry[0];
+    // Ties broken on the key so the order is total and entries can live in sorted sets
+    private static final Comparator<Entry> RANKING = Comparator.comparingLong(Entry::weight).reversed()
+        .thenComparing(Entry::label, String.CASE_INSENSITIVE_ORDER)
+        .thenComparing(Entry::key);
+
+    private final int topSize;
+    private final Node root = new Node();
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<String, IndexedUser> users = new HashMap<>();
+
+    SuggestionTrie(int topSize) {
+        this.topSize = topSize;
+    }
+
+    // Add or replace a user, keeping the skill weights in step
+    void putUser(IndexedUser user) {
+        removeUser(user.id());
+        users.put(user.id(), user);
+
+        String fullName = fullName(user);
+        String label = fullName != null ? fullName : user.username();
+        if (label != null) {
+            Set<String> terms = new LinkedHashSet<>();
+            addTerms(terms, user.username());
+            addTerms(terms, fullName);
+            insert(new Entry("user:" + user.id(), USER, user.id(), label, user.username(),
+                user.profilePicture(), user.followerCount(), List.copyOf(terms)));
+        }
+
+        for (String skill : distinctSkills(user)) {
+            adjustSkill(skill, 1);
+        }
+    }
+
+    void removeUser(String userId) {
+        IndexedUser previous = users.remove(userId);
+        if (previous == null) {
+            return;
+        }
+        remove("user:" + userId);
+        for (String skill : distinctSkills(previous)) {
+            adjustSkill(skill, -1);
+        }
+    }
+
+    List<Entry> suggest(String prefix, int limit) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.children != null ? node.children.get(prefix.charAt(i)) : null;
+        }
+        if (node == null) {
+            return List.of();
+        }
+        List<Entry> result = new ArrayList<>(Math.min(limit, node.top.length));
+        for (int i = 0; i < node.top.length && i < limit; i++) {
+            result.add(node.top[i]);
+        }
+        return result;
+    }
+
+    Collection<IndexedUser> users() {
+        return users.values();
+    }
+
+    int size() {
+        return users.size();
+    }
+
+    // Lower-cased with runs of whitespace collapsed, the form terms are stored in
+    static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    private void adjustSkill(String skill, int delta) {
+        String key = "skill:" + normalize(skill);
+        Entry current = entries.get(key);
+        long weight = (current != null ? current.weight() : 0) + delta;
+        if (current != null) {
+            remove(key);
+        }
+        if (weight > 0) {
+            Set<String> terms = new LinkedHashSet<>();
+            addTerms(terms, skill);
+            String label = current != null ? current.label() : skill.trim();
+            insert(new Entry(key, SKILL, null, label, null, null, weight, List.copyOf(terms)));
+        }
+    }
+
+    private void insert(Entry entry) {
+        entries.put(entry.key(), entry);
+        for (String term : entry.terms()) {
+            List<Node> path = new ArrayList<>(term.length() + 1);
+            Node node = root;
+            path.add(node);
+            for (int i = 0; i < term.length(); i++) {
+                if (node.children == null) {
+                    node.children = new HashMap<>(4);
+                }
+                node = node.children.computeIfAbsent(term.charAt(i), c -> new Node());
+                path.add(node);
+            }
+            if (node.own == null) {
+                node.own = new TreeSet<>(RANKING);
+            }
+            node.own.add(entry);
+            for (Node onPath : path) {
+                merge(onPath, entry);
+            }
+        }
+    }
+
+    // Put the entry into the node's cached list if it ranks high enough and is not there yet
+    private void merge(Node node, Entry entry) {
+        if (holds(node, entry.key())) {
+            return;
+        }
+        int position = Arrays.binarySearch(node.top, entry, RANKING);
+        position = position < 0 ? -position - 1 : position;
+        if (position >= topSize) {
+            return;
+        }
+        int length = Math.min(node.top.length + 1, topSize);
+        Entry[] top = new Entry[length];
+        System.arraycopy(node.top, 0, top, 0, position);
+        top[position] = entry;
+        System.arraycopy(node.top, position, top, position + 1, length - position - 1);
+        node.top = top;
+    }
+
+    private void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry == null) {
+            return;
+        }
+        // Unlink the entry from every term first, so no list is rebuilt from a node still holding it
+        List<List<Node>> paths = new ArrayList<>(entry.terms().size());
+        for (String term : entry.terms()) {
+            List<Node> path = new ArrayList<>(term.length() + 1);
+            Node node = root;
+            path.add(node);
+            for (int i = 0; i < term.length() && node != null; i++) {
+                node = node.children != null ? node.children.get(term.charAt(i)) : null;
+                path.add(node);
+            }
+            if (node == null || node.own == null) {
+                continue;
+            }
+            node.own.remove(entry);
+            prune(path, term);
+            paths.add(path);
+        }
+        for (List<Node> path : paths) {
+            recompute(path, key);
+        }
+    }
+
+    // Drop nodes that no longer lead to any entry, deepest first
+    private void prune(List<Node> path, String term) {
+        for (int depth = path.size() - 1; depth > 0; depth--) {
+            Node node = path.get(depth);
+            boolean empty = (node.own == null || node.own.isEmpty())
+                && (node.children == null || node.children.isEmpty());
+            if (!empty) {
+                return;
+            }
+            path.get(depth - 1).children.remove(term.charAt(depth - 1));
+            path.remove(depth);
+        }
+    }
+
+    /**
+     * Rebuild, bottom-up, the cached lists on the path that held the removed entry. A list
+     * without it is left alone: everything in it already ranks above the entry, and so above
+     * anything a child list can have gained in its place.
+     */
+    private void recompute(List<Node> path, String removedKey) {
+        for (int depth = path.size() - 1; depth >= 0; depth--) {
+            Node node = path.get(depth);
+            if (!holds(node, removedKey)) {
+                continue;
+            }
+            List<Entry> candidates = new ArrayList<>();
+            if (node.own != null) {
+                Iterator<Entry> own = node.own.iterator();
+                for (int i = 0; i < topSize && own.hasNext(); i++) {
+                    candidates.add(own.next());
+                }
+            }
+            if (node.children != null) {
+                for (Node child : node.children.values()) {
+                    candidates.addAll(Arrays.asList(child.top));
+                }
+            }
+            // An entry reached through several terms shows up in several child lists
+            node.top = candidates.isEmpty() ? NONE : candidates.stream()
+                .distinct()
+                .sorted(RANKING)
+                .limit(topSize)
+                .toArray(Entry[]::new);
+        }
+    }
+
+    private static boolean holds(Node node, String key) {
+        for (Entry cached : node.top) {
+            if (cached.key().equals(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // The whole value and each of its words, so "doe" finds "John Doe" and "john d" does too
+    private static void addTerms(Set<String> terms, String value) {
+        String normalized = normalize(value);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        terms.add(normalized);
+        for (String word : normalized.split(" ")) {
+            terms.add(word);
+        }
+    }
+
+    private static String fullName(IndexedUser user) {
+        String first = user.firstName() != null && !user.firstName().isBlank() ? user.firstName().trim() : null;
+        String last = user.lastName() != null && !user.lastName().isBlank() ? user.lastName().trim() : null;
+        if (first != null && last != null) {
+            return first + " " + last;
+        }
+        return first != null ? first : last;
+    }
+
+    private static Set<String> distinctSkills(IndexedUser user) {
+        Set<String> skills = new LinkedHashSet<>();
+        Set<String> seen = new HashSet<>();
+        if (user.skills() != null) {
+            for (String skill : user.skills()) {
+                if (skill != null && !skill.isBlank() && seen.add(normalize(skill))) {
+                    skills.add(skill);
+                }
+            }
+        }
+        return skills;
+    }
+
+    private static final class Node {
+        Map<Character, Node> children;
+        // Entries whose term ends here, best first
+        TreeSet<Entry> own;
+        Entry[] top = NONE;
+    }
+
+    record Entry(String key, String type, String id, String label, String username,
+                 String profilePicture, long weight, List<String> terms) {
+    }
+
+    // The user fields the index is built from; also the format of the disk snapshot
+    record IndexedUser(String id, String username, String firstName, String lastName,
+                       String profilePicture, int followerCount, List<String> skills) {
+    }
+}
@@ -0,0 +1,267 @@
+package com.skillsharing.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.skillsharing.model.Post;
+import com.skillsharing.model.TimelineEntry;
+import com.skillsharing.model.User;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Precomputed per-user home timelines (fan-out-on-write).
+ *
+ * New posts are pushed into the timeline of every follower of the author. Authors with
+ * more followers than the configured limit are skipped and their posts are merged in
+ * at read time instead, so a single celebrity post does not turn into a huge write burst.
+ * Those authors are few, so their ids are kept in memory and refreshed periodically.
+ *
+ * Fan-out runs on a small bounded pool off the request thread. Entries expire 30 days after
+ * they are written; the feed reads anything older straight from the posts collection.
+ */
+@Service
+@RequiredArgsConstructor
+public class TimelineService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimelineService.class);
+    private static final int WRITE_BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final FollowService followService;
+
+    @Value("${app.timeline.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.timeline.fanout-follower-limit:10000}")
+    private int fanOutFollowerLimit;
+
+    @Value("${app.timeline.seed-size:200}")
+    private int seedSize;
+
+    @Value("${app.timeline.fanout-threads:2}")
+    private int fanOutThreads;
+
+    @Value("${app.timeline.fanout-queue-capacity:1000}")
+    private int fanOutQueueCapacity;
+
+    private ThreadPoolExecutor fanOutExecutor;
+
+    // Every author over the fan-out limit; few enough to keep in memory, refreshed periodically
+    private final Set<String> fanOutOnReadAuthors = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void start() {
+        // A full queue runs the fan-out on the caller, which slows posting down instead of dropping entries
+        fanOutExecutor = new ThreadPoolExecutor(fanOutThreads, fanOutThreads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(fanOutQueueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "timeline-fanout");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.CallerRunsPolicy());
+
+        try {
+            refreshFanOutOnReadAuthors();
+        } catch (Exception e) {
+            logger.error("Failed to load fan-out-on-read authors", e);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        fanOutExecutor.shutdown();
+        fanOutExecutor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isFanOutOnWrite(User author) {
+        return author.getFollowerCount() <= fanOutFollowerLimit;
+    }
+
+    /**
+     * Push a new post into the author's own timeline right away and, unless the author is over
+     * the limit, into their followers' timelines in the background.
+     */
+    public void fanOut(Post post) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            upsertEntries(List.of(post.getAuthorId()), List.of(post));
+        } catch (Exception e) {
+            logger.error("Failed to add post {} to its author's timeline", post.getId(), e);
+        }
+        fanOutExecutor.execute(() -> fanOutToFollowers(post));
+    }
+
+    private void fanOutToFollowers(Post post) {
+        try {
+            // Only the follower count is needed to decide, and it is read here rather than on the request thread
+            Query authorQuery = new Query(Criteria.where("id").is(post.getAuthorId()));
+            authorQuery.fields().include("followerCount");
+            User author = mongoTemplate.findOne(authorQuery, User.class);
+            if (author == null) {
+                return;
+            }
+            if (!isFanOutOnWrite(author)) {
+                // Seen here before the next refresh, so feeds on this node merge the post in right away
+                fanOutOnReadAuthors.add(post.getAuthorId());
+                return;
+            }
+
+            Set<String> ownerIds = new HashSet<>(followService.getFollowerIds(post.getAuthorId()));
+            upsertEntries(ownerIds, List.of(post));
+            logger.debug("Fanned out post {} to {} timelines", post.getId(), ownerIds.size());
+        } catch (Exception e) {
+            // The post is already saved; a missed fan-out only delays it until the next timeline seed
+            logger.error("Failed to fan out post {}", post.getId(), e);
+        }
+    }
+
+    // Entries written before they carried insertedAt would never expire
+    public long backfillInsertedAt() {
+        return mongoTemplate.updateMulti(new Query(Criteria.where("insertedAt").exists(false)),
+            new Update().set("insertedAt", LocalDateTime.now()), TimelineEntry.class).getModifiedCount();
+    }
+
+    public void removePosts(Collection<String> postIds) {
+        if (!enabled || postIds.isEmpty()) {
+            return;
+        }
+        mongoTemplate.remove(new Query(Criteria.where("postId").in(postIds)), TimelineEntry.class);
+    }
+
+    // Copy the most recent posts of a newly followed user into the follower's timeline
+    public void onFollow(String followerId, User followee) {
+        if (!enabled || !isFanOutOnWrite(followee)) {
+            return;
+        }
+
+        Query query = new Query(Criteria.where("authorId").is(followee.getId()))
+            .with(Sort.by(Sort.Direction.DESC, "createdAt"))
+            .limit(seedSize);
+        query.fields().include("id", "authorId", "createdAt");
+
+        upsertEntries(List.of(followerId), mongoTemplate.find(query, Post.class));
+    }
+
+    public void onUnfollow(String followerId, String followeeId) {
+        if (!enabled) {
+            return;
+        }
+        mongoTemplate.remove(
+            new Query(Criteria.where("ownerId").is(followerId).and("authorId").is(followeeId)),
+            TimelineEntry.class);
+    }
+
+    public boolean hasTimeline(String ownerId) {
+        return mongoTemplate.exists(new Query(Criteria.where("ownerId").is(ownerId)), TimelineEntry.class);
+    }
+
+    /**
+     * Timelines are only written from the moment this feature is switched on, so the first
+     * read of an empty timeline seeds it from the posts of the accounts the user follows.
+     */
+    public void seed(String ownerId, Collection<String> authorIds) {
+        Query query = new Query(Criteria.where("authorId").in(authorIds))
+            .with(Sort.by(Sort.Direction.DESC, "createdAt"))
+            .limit(seedSize);
+        query.fields().include("id", "authorId", "createdAt");
+
+        List<Post> posts = mongoTemplate.find(query, Post.class);
+        upsertEntries(List.of(ownerId), posts);
+        logger.info("Seeded timeline for user {} with {} posts", ownerId, posts.size());
+    }
+
+    // Timeline entries for the owner, newest first, strictly older than the cursor when one is given
+    public List<TimelineEntry> findEntries(String ownerId, FeedService.FeedCursor cursor, int limit) {
+        Query query = new Query(Criteria.where("ownerId").is(ownerId));
+        if (cursor != null) {
+            query.addCriteria(new Criteria().orOperator(
+                Criteria.where("createdAt").lt(cursor.createdAt()),
+                new Criteria().andOperator(
+                    Criteria.where("createdAt").is(cursor.createdAt()),
+                    Criteria.where("postId").lt(cursor.id())
+                )
+            ));
+        }
+        query.with(Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "postId")));
+        query.limit(limit);
+        return mongoTemplate.find(query, TimelineEntry.class);
+    }
+
+    // Authors whose posts are not fanned out and have to be merged into feeds on read
+    public Set<String> getFanOutOnReadAuthors() {
+        return fanOutOnReadAuthors;
+    }
+
+    @Scheduled(fixedDelayString = "${app.timeline.fanout-on-read-refresh-ms:60000}")
+    public void refreshFanOutOnReadAuthors() {
+        if (!enabled) {
+            return;
+        }
+        Query query = new Query(Criteria.where("followerCount").gt(fanOutFollowerLimit));
+        query.fields().include("id");
+        Set<String> authorIds = mongoTemplate.find(query, User.class).stream()
+            .map(User::getId)
+            .collect(Collectors.toSet());
+
+        fanOutOnReadAuthors.retainAll(authorIds);
+        fanOutOnReadAuthors.addAll(authorIds);
+    }
+
+    private void upsertEntries(Collection<String> ownerIds, List<Post> posts) {
+        LocalDateTime now = LocalDateTime.now();
+        List<TimelineEntry> entries = new ArrayList<>();
+        for (String ownerId : ownerIds) {
+            for (Post post : posts) {
+                entries.add(TimelineEntry.builder()
+                    .ownerId(ownerId)
+                    .postId(post.getId())
+                    .authorId(post.getAuthorId())
+                    .createdAt(post.getCreatedAt())
+                    .build());
+            }
+        }
+
+        for (int start = 0; start < entries.size(); start += WRITE_BATCH_SIZE) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TimelineEntry.class);
+            for (TimelineEntry entry : entries.subList(start, Math.min(start + WRITE_BATCH_SIZE, entries.size()))) {
+                // Upsert on (ownerId, postId) so repeated fan-outs and seeds stay idempotent
+                bulk.upsert(
+                    new Query(Criteria.where("ownerId").is(entry.getOwnerId()).and("postId").is(entry.getPostId())),
+                    new Update()
+                        .setOnInsert("authorId", entry.getAuthorId())
+                        .setOnInsert("createdAt", entry.getCreatedAt())
+                        .setOnInsert("insertedAt", now));
+            }
+            bulk.execute();
+        }
+    }
+}
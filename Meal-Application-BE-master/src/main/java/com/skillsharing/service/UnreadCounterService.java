@@ -0,0 +1,212 @@
+package com.skillsharing.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.skillsharing.model.Message;
+import com.skillsharing.model.Notification;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Per-user unread counts for notifications and messages, served from memory.
+ *
+ * Counts are split over lock stripes keyed by user id, each holding a plain map of
+ * primitive counters, so concurrent updates for different users rarely contend. A count
+ * is loaded from Mongo the first time it is read and kept current by the write paths.
+ * Updates that race with a load can be lost, so a scheduled job recounts every cached
+ * user and drops the ones nobody has asked about recently.
+ */
+@Service
+@RequiredArgsConstructor
+public class UnreadCounterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UnreadCounterService.class);
+    private static final int STRIPES = 64;
+    private static final int RECONCILE_BATCH_SIZE = 500;
+    private static final long UNLOADED = -1;
+
+    public enum Kind {
+        NOTIFICATIONS, MESSAGES
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final Stripe[] stripes = createStripes();
+
+    @Value("${app.unread-counters.idle-minutes:30}")
+    private long idleMinutes;
+
+    public long getUnreadNotifications(String userId) {
+        return get(Kind.NOTIFICATIONS, userId);
+    }
+
+    public long getUnreadMessages(String userId) {
+        return get(Kind.MESSAGES, userId);
+    }
+
+    public long get(Kind kind, String userId) {
+        Stripe stripe = stripeFor(userId);
+        synchronized (stripe) {
+            long[] counts = stripe.counts.get(userId);
+            if (counts != null && counts[kind.ordinal()] != UNLOADED) {
+                stripe.lastAccess.put(userId, System.currentTimeMillis());
+                return counts[kind.ordinal()];
+            }
+        }
+
+        long loaded = countUnread(kind, List.of(userId)).getOrDefault(userId, 0L);
+        synchronized (stripe) {
+            long[] counts = stripe.counts.computeIfAbsent(userId, id -> unloadedCounts());
+            // Another thread may have loaded it first; keep whichever value is already there
+            if (counts[kind.ordinal()] == UNLOADED) {
+                counts[kind.ordinal()] = loaded;
+            }
+            stripe.lastAccess.put(userId, System.currentTimeMillis());
+            return counts[kind.ordinal()];
+        }
+    }
+
+    /**
+     * Adjust a loaded count. Counts that have not been loaded yet are left alone, since
+     * the next read loads them from Mongo including this change.
+     */
+    public void add(Kind kind, String userId, long delta) {
+        if (userId == null || delta == 0) {
+            return;
+        }
+        Stripe stripe = stripeFor(userId);
+        synchronized (stripe) {
+            long[] counts = stripe.counts.get(userId);
+            if (counts != null && counts[kind.ordinal()] != UNLOADED) {
+                counts[kind.ordinal()] = Math.max(0, counts[kind.ordinal()] + delta);
+            }
+        }
+    }
+
+    public void reset(Kind kind, String userId) {
+        set(kind, userId, 0);
+    }
+
+    // Forget a count whose new value is unknown; the next read reloads it
+    public void invalidate(Kind kind, String userId) {
+        set(kind, userId, UNLOADED);
+    }
+
+    /**
+     * Recount every cached user from Mongo, correcting drift from lost updates, and evict
+     * users whose counts have not been read within the idle window.
+     */
+    @Scheduled(fixedDelayString = "${app.unread-counters.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        long idleBefore = System.currentTimeMillis() - idleMinutes * 60_000;
+        List<String> userIds = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                Iterator<Map.Entry<String, Long>> iterator = stripe.lastAccess.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<String, Long> entry = iterator.next();
+                    if (entry.getValue() < idleBefore) {
+                        stripe.counts.remove(entry.getKey());
+                        iterator.remove();
+                    } else {
+                        userIds.add(entry.getKey());
+                    }
+                }
+            }
+        }
+
+        int corrected = 0;
+        for (int start = 0; start < userIds.size(); start += RECONCILE_BATCH_SIZE) {
+            List<String> batch = userIds.subList(start, Math.min(start + RECONCILE_BATCH_SIZE, userIds.size()));
+            for (Kind kind : Kind.values()) {
+                Map<String, Long> actual = countUnread(kind, batch);
+                for (String userId : batch) {
+                    corrected += correct(kind, userId, actual.getOrDefault(userId, 0L)) ? 1 : 0;
+                }
+            }
+        }
+
+        if (corrected > 0) {
+            logger.info("Corrected {} unread counters out of {} cached users", corrected, userIds.size());
+        }
+    }
+
+    private boolean correct(Kind kind, String userId, long actual) {
+        Stripe stripe = stripeFor(userId);
+        synchronized (stripe) {
+            long[] counts = stripe.counts.get(userId);
+            if (counts == null || counts[kind.ordinal()] == UNLOADED || counts[kind.ordinal()] == actual) {
+                return false;
+            }
+            counts[kind.ordinal()] = actual;
+            return true;
+        }
+    }
+
+    private void set(Kind kind, String userId, long value) {
+        if (userId == null) {
+            return;
+        }
+        Stripe stripe = stripeFor(userId);
+        synchronized (stripe) {
+            long[] counts = stripe.counts.get(userId);
+            if (counts != null) {
+                counts[kind.ordinal()] = value;
+            }
+        }
+    }
+
+    // Unread counts per user in one grouped query
+    private Map<String, Long> countUnread(Kind kind, Collection<String> userIds) {
+        String ownerField = kind == Kind.NOTIFICATIONS ? "userId" : "receiverId";
+        Class<?> type = kind == Kind.NOTIFICATIONS ? Notification.class : Message.class;
+
+        Aggregation aggregation = Aggregation.newAggregation(
+            Aggregation.match(Criteria.where(ownerField).in(userIds).and("read").is(false)),
+            Aggregation.group(ownerField).count().as("count"));
+
+        Map<String, Long> counts = new HashMap<>();
+        mongoTemplate.aggregate(aggregation, mongoTemplate.getCollectionName(type), Document.class)
+            .forEach(result -> counts.put(result.getString("_id"), ((Number) result.get("count")).longValue()));
+        return counts;
+    }
+
+    private Stripe stripeFor(String userId) {
+        return stripes[Math.floorMod(userId.hashCode(), STRIPES)];
+    }
+
+    private static long[] unloadedCounts() {
+        long[] counts = new long[Kind.values().length];
+        Arrays.fill(counts, UNLOADED);
+        return counts;
+    }
+
+    private static Stripe[] createStripes() {
+        Stripe[] stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+        return stripes;
+    }
+
+    // Guarded by its own monitor
+    private static final class Stripe {
+        private final Map<String, long[]> counts = new HashMap<>();
+        private final Map<String, Long> lastAccess = new HashMap<>();
+    }
+}
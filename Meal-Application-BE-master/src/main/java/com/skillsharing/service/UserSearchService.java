@@ -0,0 +1,195 @@
+package com.skillsharing.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.skillsharing.model.User;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * User search on an indexed list of word prefixes.
+ *
+ * Every user document carries searchTerms: each prefix of each word of the username,
+ * first name, last name and skills, lower-cased. A query matches users holding all of its
+ * words as terms, which is an equality lookup on the multikey index instead of a regex
+ * scan. The most followed matches within a bounded window are then ranked by how well
+ * each word matches (exact username first, skills last).
+ */
+@Service
+@RequiredArgsConstructor
+public class UserSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSearchService.class);
+
+    // Longest prefix stored per word; longer query words are matched on the prefix and checked afterwards
+    static final int MAX_PREFIX_LENGTH = 15;
+    private static final int MAX_QUERY_WORDS = 5;
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.user-search.limit:20}")
+    private int defaultLimit;
+
+    @Value("${app.user-search.max-limit:50}")
+    private int maxLimit;
+
+    @Value("${app.user-search.candidate-window:200}")
+    private int candidateWindow;
+
+    /**
+     * The best matches for the query, excluding the given user.
+     */
+    public List<User> search(String queryText, String excludeUserId, Integer limit) {
+        int resultLimit = limit == null || limit <= 0 ? defaultLimit : Math.min(limit, maxLimit);
+        List<String> words = words(queryText).stream().limit(MAX_QUERY_WORDS).collect(Collectors.toList());
+        if (words.isEmpty()) {
+            return List.of();
+        }
+
+        List<String> terms = words.stream()
+            .map(word -> word.length() > MAX_PREFIX_LENGTH ? word.substring(0, MAX_PREFIX_LENGTH) : word)
+            .distinct()
+            .collect(Collectors.toList());
+        Criteria criteria = Criteria.where("searchTerms").all(terms);
+        if (excludeUserId != null) {
+            criteria = criteria.and("id").ne(excludeUserId);
+        }
+
+        Query query = new Query(criteria)
+            .with(Sort.by(Sort.Direction.DESC, "followerCount"))
+            .limit(candidateWindow);
+        query.fields().include("id", "username", "firstName", "lastName", "profilePicture", "bio", "skills", "followerCount");
+
+        return mongoTemplate.find(query, User.class).stream()
+            .map(user -> new Match(user, score(user, words)))
+            .filter(match -> match.score() > 0)
+            .sorted(Comparator.comparingInt(Match::score).reversed()
+                .thenComparing(Comparator.comparingInt((Match match) -> match.user().getFollowerCount()).reversed()))
+            .limit(resultLimit)
+            .map(Match::user)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Set searchTerms on users written before the field existed.
+     */
+    public long backfillSearchTerms() {
+        Query query = new Query(Criteria.where("searchTerms").exists(false));
+        query.fields().include("id", "username", "firstName", "lastName", "skills");
+
+        long updated = 0;
+        List<User> batch = new ArrayList<>();
+        try (Stream<User> users = mongoTemplate.stream(query, User.class)) {
+            for (User user : (Iterable<User>) users::iterator) {
+                batch.add(user);
+                if (batch.size() >= BACKFILL_BATCH_SIZE) {
+                    updated += writeSearchTerms(batch);
+                    batch.clear();
+                }
+            }
+        }
+        updated += writeSearchTerms(batch);
+
+        if (updated > 0) {
+            logger.info("Indexed {} users for search", updated);
+        }
+        return updated;
+    }
+
+    // Every prefix of every word in the user's searchable fields
+    public static List<String> searchTerms(User user) {
+        List<String> sources = new ArrayList<>();
+        sources.add(user.getUsername());
+        sources.add(user.getFirstName());
+        sources.add(user.getLastName());
+        if (user.getSkills() != null) {
+            sources.addAll(user.getSkills());
+        }
+
+        Set<String> terms = new LinkedHashSet<>();
+        for (String source : sources) {
+            for (String word : words(source)) {
+                for (int length = 1; length <= Math.min(word.length(), MAX_PREFIX_LENGTH); length++) {
+                    terms.add(word.substring(0, length));
+                }
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    private long writeSearchTerms(List<User> users) {
+        if (users.isEmpty()) {
+            return 0;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        for (User user : users) {
+            bulk.updateOne(new Query(Criteria.where("id").is(user.getId())),
+                new Update().set("searchTerms", searchTerms(user)));
+        }
+        return bulk.execute().getModifiedCount();
+    }
+
+    // Sum over the query words of the best way each one matches; 0 when a word only matched a truncated prefix
+    private int score(User user, List<String> words) {
+        int total = 0;
+        for (String word : words) {
+            int best = Math.max(fieldScore(user.getUsername(), word, 8, 5),
+                Math.max(fieldScore(user.getFirstName(), word, 4, 3), fieldScore(user.getLastName(), word, 4, 3)));
+            if (user.getSkills() != null) {
+                for (String skill : user.getSkills()) {
+                    best = Math.max(best, fieldScore(skill, word, 2, 1));
+                }
+            }
+            if (best == 0) {
+                return 0;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    private int fieldScore(String value, String word, int exact, int prefix) {
+        int best = 0;
+        for (String candidate : words(value)) {
+            if (candidate.equals(word)) {
+                return exact;
+            }
+            if (candidate.startsWith(word)) {
+                best = prefix;
+            }
+        }
+        return best;
+    }
+
+    private static List<String> words(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+            .filter(word -> !word.isEmpty())
+            .collect(Collectors.toList());
+    }
+
+    private record Match(User user, int score) {
+    }
+}
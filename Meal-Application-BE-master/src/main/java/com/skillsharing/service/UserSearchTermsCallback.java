@@ -0,0 +1,20 @@
+package com.skillsharing.service;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.stereotype.Component;
+
+import com.skillsharing.model.User;
+
+// Recomputes searchTerms and stamps updatedAt whenever a user is saved, so both search indexes follow profile edits
+@Component
+public class UserSearchTermsCallback implements BeforeConvertCallback<User> {
+
+    @Override
+    public User onBeforeConvert(User user, String collection) {
+        user.setSearchTerms(UserSearchService.searchTerms(user));
+        user.setUpdatedAt(LocalDateTime.now());
+        return user;
+    }
+}
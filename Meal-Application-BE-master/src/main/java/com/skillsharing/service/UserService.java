@@ -1,5 +1,14 @@
 package com.skillsharing.service;
 
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Set;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import com.skillsharing.model.User;
@@ -11,10 +20,43 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class UserService {
 
+    // Fields searchTerms and the suggestion index are built from
+    private static final Set<String> SEARCHED_FIELDS = Set.of("firstName", "lastName", "username", "skills");
+
     private final UserRepository userRepository;
+    private final MongoTemplate mongoTemplate;
+    private final SuggestionService suggestionService;
 
     public User getUserByEmail(String email) {
         return userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
     }
+
+    /**
+     * Write only the named fields of an existing user with $set. Use this instead of save()
+     * for edits: save() replaces the whole document and drops the follower counters, which
+     * only FollowService writes. searchTerms and the suggestion index are kept in step, as
+     * the save callbacks would.
+     */
+    public User updateFields(User user, String... fields) {
+        Document document = new Document();
+        mongoTemplate.getConverter().write(user, document);
+
+        user.setUpdatedAt(LocalDateTime.now());
+        Update update = new Update().set("updatedAt", user.getUpdatedAt());
+        for (String field : fields) {
+            update.set(field, document.get(field));
+        }
+        boolean searched = Arrays.stream(fields).anyMatch(SEARCHED_FIELDS::contains);
+        if (searched) {
+            user.setSearchTerms(UserSearchService.searchTerms(user));
+            update.set("searchTerms", user.getSearchTerms());
+        }
+
+        mongoTemplate.updateFirst(new Query(Criteria.where("id").is(user.getId())), update, User.class);
+        if (searched) {
+            suggestionService.onUserSaved(user);
+        }
+        return user;
+    }
 }
@@ -0,0 +1,22 @@
+package com.skillsharing.service;
+
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+import com.skillsharing.model.User;
+
+import lombok.RequiredArgsConstructor;
+
+// Keeps the in-memory suggestion index in step with user saves
+@Component
+@RequiredArgsConstructor
+public class UserSuggestionListener extends AbstractMongoEventListener<User> {
+
+    private final SuggestionService suggestionService;
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<User> event) {
+        suggestionService.onUserSaved(event.getSource());
+    }
+}
@@ -10,9 +10,23 @@ const CommentSection = ({ post, currentUser, formatTime, onCommentAdded, onComme
   const [editingCommentId, setEditingCommentId] = useState(null);
   const [editText, setEditText] = useState('');
   const [isEditSubmitting, setIsEditSubmitting] = useState(false);
+  const [olderComments, setOlderComments] = useState([]);
+  const [olderCursor, setOlderCursor] = useState(null);
+  const [hasOlderPage, setHasOlderPage] = useState(true);
+  const [isLoadingOlder, setIsLoadingOlder] = useState(false);
   const commentInputRef = useRef(null);
   const { addToast } = useToast();
   
+  // Posts only carry a preview of their latest comments; older ones are paged in on demand
+  const previewComments = post.comments || [];
+  const previewIds = new Set(previewComments.map(comment => comment.id));
+  const displayedComments = [
+    ...olderComments.filter(comment => !previewIds.has(comment.id)),
+    ...previewComments
+  ];
+  const totalComments = Math.max(post.commentCount ?? 0, displayedComments.length);
+  const canLoadOlder = hasOlderPage && totalComments > displayedComments.length;
+  
   useEffect(() => {
     if (editingCommentId) {
       commentInputRef.current?.focus();
@@ -59,6 +73,38 @@ const CommentSection = ({ post, currentUser, formatTime, onCommentAdded, onComme
     }
   };
   
+  const handleLoadOlderComments = async () => {
+    setIsLoadingOlder(true);
+    try {
+      const token = localStorage.getItem('token');
+      const params = new URLSearchParams({ limit: '20' });
+      if (olderCursor) {
+        params.set('cursor', olderCursor);
+      }
+      const response = await fetch(`${API_BASE_URL}/posts/${post.id}/comments?${params}`, {
+        headers: {
+          'Authorization': `Bearer ${token}`
+        }
+      });
+      
+      if (!response.ok) {
+        throw new Error('Failed to load comments');
+      }
+      
+      const data = await response.json();
+      // Pages come newest first; the list is shown oldest first
+      const page = [...data.comments].reverse();
+      setOlderComments(prev => [...page, ...prev.filter(c => !page.some(p => p.id === c.id))]);
+      setOlderCursor(data.nextCursor);
+      setHasOlderPage(data.hasMore);
+    } catch (error) {
+      console.error('Error loading comments:', error);
+      addToast(error.message || 'Failed to load comments', 'error');
+    } finally {
+      setIsLoadingOlder(false);
+    }
+  };
+  
   const handleDeleteComment = async (commentId) => {
     if (!window.confirm('Are you sure you want to delete this comment?')) return;
     
@@ -83,6 +129,7 @@ const CommentSection = ({ post, currentUser, formatTime, onCommentAdded, onComme
       }
       
       const data = await response.json();
+      setOlderComments(prev => prev.filter(c => c.id !== commentId));
       onCommentDeleted && onCommentDeleted(post.id, commentId);
       onCommentAdded(data.post);
       addToast('Comment deleted successfully', 'success');
@@ -137,6 +184,9 @@ const CommentSection = ({ post, currentUser, formatTime, onCommentAdded, onComme
       }
       
       const data = await response.json();
+      setOlderComments(prev => prev.map(c => 
+        c.id === commentId ? { ...c, content: editText.trim(), edited: true } : c
+      ));
       onCommentAdded(data.post);
       setEditingCommentId(null);
       setEditText('');
@@ -152,19 +202,29 @@ const CommentSection = ({ post, currentUser, formatTime, onCommentAdded, onComme
   return (
     <div className="mt-4">
       <div className="mb-3">
-        {!expanded && post.comments && post.comments.length > 0 && (
+        {!expanded && totalComments > 0 && (
           <button 
             onClick={() => setExpanded(true)}
             className="text-sm font-medium text-DarkColor hover:underline"
           >
-            View {post.comments.length} comment{post.comments.length > 1 ? 's' : ''}
+            View {totalComments} comment{totalComments > 1 ? 's' : ''}
           </button>
         )}
       </div>
       
-      {expanded && post.comments && post.comments.length > 0 && (
+      {expanded && canLoadOlder && (
+        <button 
+          onClick={handleLoadOlderComments}
+          disabled={isLoadingOlder}
+          className="text-sm text-gray-500 hover:underline mb-3 block disabled:opacity-50"
+        >
+          {isLoadingOlder ? 'Loading...' : 'View earlier comments'}
+        </button>
+      )}
+      
+      {expanded && displayedComments.length > 0 && (
         <div className="space-y-3 mb-4 max-h-60 overflow-y-auto">
-          {post.comments.map(comment => (
+          {displayedComments.map(comment => (
             <div key={comment.id} className="bg-gray-50 p-3 rounded-lg">
               {editingCommentId === comment.id ? (
                 <div className="space-y-2">
@@ -252,7 +312,7 @@ const CommentSection = ({ post, currentUser, formatTime, onCommentAdded, onComme
         </div>
       )}
       
-      {expanded && post.comments && post.comments.length > 3 && (
+      {expanded && displayedComments.length > 3 && (
         <button 
           onClick={() => setExpanded(false)}
           className="text-sm text-gray-500 hover:underline mb-3 block"
@@ -10,6 +10,9 @@ const Navbar = ({ user }) => {
   const { addToast } = useToast();
   const [searchTerm, setSearchTerm] = useState('');
   const [searchResults, setSearchResults] = useState([]);
+  const [suggestions, setSuggestions] = useState([]);
+  // The query last submitted with Enter; while the input still matches it the dropdown shows full results
+  const [submittedTerm, setSubmittedTerm] = useState('');
   const [showResults, setShowResults] = useState(false);
   const [isSearching, setIsSearching] = useState(false);
   const searchRef = useRef(null);
@@ -94,10 +97,67 @@ const Navbar = ({ user }) => {
     
     fetchUnreadCounts();
     
-    // Poll for updates
-    const intervalId = setInterval(fetchUnreadCounts, 30000);
+    // Listen for pushed count updates; only poll while the stream is unavailable
+    let eventSource = null;
+    let reconnectId = null;
+    let closed = false;
     
-    return () => clearInterval(intervalId);
+    // EventSource cannot send the token in a header, so each connection uses a fresh single-use ticket
+    const connectStream = async () => {
+      try {
+        const token = localStorage.getItem('token');
+        const ticketResponse = await fetch(`${API_BASE_URL}/stream/ticket`, {
+          method: 'POST',
+          headers: {
+            'Authorization': `Bearer ${token}`
+          }
+        });
+        if (!ticketResponse.ok || closed) return;
+        const { ticket } = await ticketResponse.json();
+        if (closed) return;
+        
+        eventSource = new EventSource(`${API_BASE_URL}/stream?ticket=${encodeURIComponent(ticket)}`);
+        // Either count may be missing: some events only carry the one that changed
+        eventSource.addEventListener('unread-count', (event) => {
+          const counts = JSON.parse(event.data);
+          if (counts.notifications !== undefined) setUnreadCount(counts.notifications);
+          if (counts.messages !== undefined) setUnreadMessageCount(counts.messages);
+        });
+        eventSource.addEventListener('unread-delta', (event) => {
+          const delta = JSON.parse(event.data);
+          if (delta.notifications) setUnreadCount((count) => Math.max(0, count + delta.notifications));
+          if (delta.messages) setUnreadMessageCount((count) => Math.max(0, count + delta.messages));
+        });
+        // The browser's own retry would reuse the spent ticket, so reconnect with a new one instead
+        eventSource.onerror = () => {
+          eventSource.close();
+          if (!closed) {
+            reconnectId = setTimeout(connectStream, 5000);
+          }
+        };
+      } catch (error) {
+        console.error('Error opening update stream:', error);
+      }
+    };
+    
+    if (user && typeof EventSource !== 'undefined') {
+      connectStream();
+    }
+    
+    const intervalId = setInterval(() => {
+      if (!eventSource || eventSource.readyState !== EventSource.OPEN) {
+        fetchUnreadCounts();
+      }
+    }, 30000);
+    
+    return () => {
+      closed = true;
+      clearInterval(intervalId);
+      clearTimeout(reconnectId);
+      if (eventSource) {
+        eventSource.close();
+      }
+    };
   }, [user]);
   
   // Fetch notifications when dropdown is opened
@@ -107,7 +167,7 @@ const Navbar = ({ user }) => {
     setIsLoadingNotifications(true);
     try {
       const token = localStorage.getItem('token');
-      const response = await fetch(`${API_BASE_URL}/users/notifications`, {
+      const response = await fetch(`${API_BASE_URL}/users/notifications?limit=20`, {
         headers: {
           'Authorization': `Bearer ${token}`
         }
@@ -115,7 +175,7 @@ const Navbar = ({ user }) => {
       
       if (response.ok) {
         const data = await response.json();
-        setNotifications(data);
+        setNotifications(data.notifications);
       } else if (response.status === 403) {
         // Use mock notifications for 403 Forbidden errors
         console.warn('Using mock notifications data due to 403 Forbidden error');
@@ -341,6 +401,29 @@ const Navbar = ({ user }) => {
     }
   };
 
+  const showingResults = submittedTerm !== '' && submittedTerm === searchTerm;
+
+  // Typeahead lookups come from the in-memory prefix index; full search only runs on submit
+  const fetchSuggestions = async (query) => {
+    try {
+      const token = localStorage.getItem('token');
+      const response = await fetch(`${API_BASE_URL}/users/suggest?q=${encodeURIComponent(query)}`, {
+        headers: {
+          'Authorization': `Bearer ${token}`
+        }
+      });
+
+      if (!response.ok) {
+        throw new Error('Suggest failed');
+      }
+
+      setSuggestions(await response.json());
+      setShowResults(true);
+    } catch (error) {
+      console.error('Error fetching suggestions:', error);
+    }
+  };
+
   // Search users functionality - modify to use the refreshSearch method
   const searchUsers = async (query) => {
     if (!query.trim()) {
@@ -349,26 +432,47 @@ const Navbar = ({ user }) => {
       return;
     }
 
+    setSubmittedTerm(query);
     await refreshSearch(query);
     setShowResults(true);
   };
 
-  // Debounce search input
+  // Debounce typeahead input
   useEffect(() => {
     const delayDebounceFn = setTimeout(() => {
-      if (searchTerm) {
-        searchUsers(searchTerm);
+      if (!searchTerm.trim()) {
+        setSuggestions([]);
+        setShowResults(false);
+      } else if (searchTerm !== submittedTerm) {
+        fetchSuggestions(searchTerm);
       }
-    }, 300);
+    }, 150);
 
     return () => clearTimeout(delayDebounceFn);
   }, [searchTerm]);
 
+  const handleSearchKeyDown = (e) => {
+    if (e.key === 'Enter') {
+      searchUsers(searchTerm);
+    }
+  };
+
+  // A skill suggestion runs the full search for users with that skill
+  const handleSuggestionSelect = (suggestion) => {
+    if (suggestion.type === 'USER') {
+      handleUserSelect(suggestion.id);
+    } else {
+      setSearchTerm(suggestion.label);
+      searchUsers(suggestion.label);
+    }
+  };
+
   // Handle user selection from search
   const handleUserSelect = (userId) => {
     navigate(`/profile/${userId}`);
     setShowResults(false);
     setSearchTerm('');
+    setSubmittedTerm('');
   };
 
   // Handle follow/unfollow user - fixed implementation
@@ -474,9 +578,11 @@ const Navbar = ({ user }) => {
 
   // Ensure focus events also trigger a refresh of search results
   const handleSearchFocus = () => {
-    if (searchTerm.trim()) {
+    if (showingResults) {
       refreshSearch(searchTerm);
       setShowResults(true);
+    } else if (searchTerm.trim()) {
+      fetchSuggestions(searchTerm);
     }
   };
 
@@ -484,7 +590,7 @@ const Navbar = ({ user }) => {
   useEffect(() => {
     // If there's an active search when the component mounts or user changes,
     // refresh the results to get the current follow status
-    if (searchTerm.trim() && showResults) {
+    if (showingResults && showResults) {
       refreshSearch(searchTerm);
     }
   }, [user]);
@@ -511,6 +617,7 @@ const Navbar = ({ user }) => {
                   value={searchTerm}
                   onChange={(e) => setSearchTerm(e.target.value)}
                   onFocus={handleSearchFocus}
+                  onKeyDown={handleSearchKeyDown}
                 />
                 <div className="absolute right-3 top-2.5">
                   {isSearching ? (
@@ -524,7 +631,45 @@ const Navbar = ({ user }) => {
               {/* Search Results Dropdown */}
               {showResults && (
                 <div className="absolute mt-2 w-80 bg-white rounded-lg shadow-lg overflow-hidden z-10">
-                  {searchResults.length > 0 ? (
+                  {!showingResults ? (
+                    suggestions.length > 0 ? (
+                      <ul>
+                        {suggestions.map((suggestion) => (
+                          <li
+                            key={`${suggestion.type}:${suggestion.id || suggestion.label}`}
+                            className="border-b border-gray-100 last:border-0 hover:bg-gray-50 cursor-pointer"
+                            onClick={() => handleSuggestionSelect(suggestion)}
+                          >
+                            {suggestion.type === 'USER' ? (
+                              <div className="flex items-center p-3">
+                                <img
+                                  src={suggestion.profilePicture || DefaultAvatar}
+                                  alt={suggestion.label}
+                                  className="h-8 w-8 rounded-full object-cover"
+                                />
+                                <div className="ml-3">
+                                  <p className="font-medium text-gray-800">{suggestion.label}</p>
+                                  {suggestion.username && (
+                                    <p className="text-xs text-gray-500">@{suggestion.username}</p>
+                                  )}
+                                </div>
+                              </div>
+                            ) : (
+                              <div className="flex items-center p-3">
+                                <i className='bx bx-purchase-tag text-xl text-DarkColor'></i>
+                                <p className="ml-3 text-gray-800">{suggestion.label}</p>
+                                <span className="ml-auto text-xs text-gray-500">Skill</span>
+                              </div>
+                            )}
+                          </li>
+                        ))}
+                      </ul>
+                    ) : (
+                      <div className="p-4 text-center text-gray-500">
+                        Press Enter to search for "{searchTerm}"
+                      </div>
+                    )
+                  ) : searchResults.length > 0 ? (
                     <ul>
                       {searchResults.map((result) => (
                         <li key={result.id} className="border-b border-gray-100 last:border-0">
@@ -6,9 +6,16 @@ import { useAuth } from '../../config/AuthContext.jsx';
 import DefaultAvatar from '../../assets/avatar.png';
 import { useToast } from '../common/Toast';
 
+const PAGE_SIZE = 20;
+
 const Communities = () => {
   const [communities, setCommunities] = useState([]);
   const [searchTerm, setSearchTerm] = useState('');
+  // What the loaded pages list (a search, a category or everything), and where it left off
+  const [listing, setListing] = useState({ query: '', category: 'all' });
+  const [page, setPage] = useState(0);
+  const [hasMore, setHasMore] = useState(false);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [selectedCategory, setSelectedCategory] = useState('all');
   const [loading, setLoading] = useState(true);
   const navigate = useNavigate();
@@ -36,9 +43,10 @@ const Communities = () => {
 
   const fetchCommunities = async () => {
     setLoading(true);
+    setHasMore(false);
     try {
       const token = localStorage.getItem('token');
-      const response = await fetch(`${API_URL}/api/communities`, {
+      const response = await fetch(`${API_URL}/api/communities?page=0&size=${PAGE_SIZE}`, {
         headers: {
           'Authorization': `Bearer ${token}`
         }
@@ -87,7 +95,10 @@ const Communities = () => {
         }
       } else {
         const data = await response.json();
-        setCommunities(data);
+        setCommunities(data.communities);
+        setListing({ query: '', category: 'all' });
+        setPage(data.page);
+        setHasMore(data.hasMore);
       }
     } catch (error) {
       console.error('Error fetching communities:', error);
@@ -132,6 +143,36 @@ const Communities = () => {
     }
   };
 
+  const listingUrl = ({ query, category }, pageNumber) => {
+    const paging = `page=${pageNumber}&size=${PAGE_SIZE}`;
+    if (query) {
+      return `${API_URL}/api/communities/search?query=${encodeURIComponent(query)}&${paging}`;
+    }
+    if (category !== 'all') {
+      return `${API_URL}/api/communities/category/${encodeURIComponent(category)}?${paging}`;
+    }
+    return `${API_URL}/api/communities?${paging}`;
+  };
+
+  // One page of the listing; page 0 replaces the list, later pages are appended
+  const loadPage = async (target, pageNumber) => {
+    const token = localStorage.getItem('token');
+    const response = await fetch(listingUrl(target, pageNumber), {
+      headers: {
+        'Authorization': `Bearer ${token}`
+      }
+    });
+
+    if (!response.ok) {
+      throw new Error(`Failed to fetch communities: ${response.status}`);
+    }
+
+    const data = await response.json();
+    setCommunities(prev => pageNumber === 0 ? data.communities : [...prev, ...data.communities]);
+    setPage(data.page);
+    setHasMore(data.hasMore);
+  };
+
   const handleSearch = async (e) => {
     e.preventDefault();
     if (!searchTerm.trim()) {
@@ -140,19 +181,10 @@ const Communities = () => {
     }
 
     try {
-      const token = localStorage.getItem('token');
-      const response = await fetch(`${API_URL}/api/communities/search?query=${searchTerm}`, {
-        headers: {
-          'Authorization': `Bearer ${token}`
-        }
-      });
-      
-      if (!response.ok) {
-        throw new Error(`Search failed: ${response.status}`);
-      }
-      
-      const data = await response.json();
-      setCommunities(data);
+      const target = { query: searchTerm, category: 'all' };
+      setListing(target);
+      setSelectedCategory('all');
+      await loadPage(target, 0);
     } catch (error) {
       console.error('Error searching communities:', error);
       addToast('Search failed. Please try again.', 'error');
@@ -163,20 +195,44 @@ const Communities = () => {
         community.description.toLowerCase().includes(searchTerm.toLowerCase())
       );
       setCommunities(filteredMockCommunities);
+      setHasMore(false);
+    }
+  };
+
+  const handleLoadMore = async () => {
+    setLoadingMore(true);
+    try {
+      await loadPage(listing, page + 1);
+    } catch (error) {
+      console.error('Error loading more communities:', error);
+      addToast('Failed to load more communities.', 'error');
+    } finally {
+      setLoadingMore(false);
     }
   };
 
-  const handleCategoryFilter = (category) => {
+  const handleCategoryFilter = async (category) => {
     setSelectedCategory(category);
     
     if (category === 'all') {
       fetchCommunities();
     } else {
-      // Filter the existing communities by category
-      const filtered = communities.filter(community => 
-        community.category === category
-      );
-      setCommunities(filtered);
+      const target = { query: '', category };
+      setListing(target);
+      setLoading(true);
+      try {
+        await loadPage(target, 0);
+      } catch (error) {
+        console.error('Error fetching communities by category:', error);
+        // Filter the existing communities by category
+        const filtered = communities.filter(community => 
+          community.category === category
+        );
+        setCommunities(filtered);
+        setHasMore(false);
+      } finally {
+        setLoading(false);
+      }
     }
   };
 
@@ -293,6 +349,18 @@ const Communities = () => {
             )}
           </div>
         )}
+
+        {!loading && hasMore && (
+          <div className="flex justify-center mt-6">
+            <button
+              className="text-DarkColor border border-DarkColor hover:bg-DarkColor hover:text-white px-4 py-2 rounded-md transition-colors duration-200 disabled:opacity-50"
+              onClick={handleLoadMore}
+              disabled={loadingMore}
+            >
+              {loadingMore ? 'Loading...' : 'Load more'}
+            </button>
+          </div>
+        )}
       </div>
     </div>
   );
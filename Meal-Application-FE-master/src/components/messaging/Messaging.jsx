@@ -38,7 +38,37 @@ const Messaging = () => {
     return () => document.removeEventListener('mousedown', handleClickOutside);
   }, []);
 
-  // Search users function
+  // Typeahead lookups come from the in-memory prefix index; only user entries can start a conversation
+  const fetchSuggestions = async (query) => {
+    try {
+      const token = localStorage.getItem('token');
+      const response = await fetch(`${API_BASE_URL}/users/suggest?q=${encodeURIComponent(query)}`, {
+        headers: {
+          'Authorization': `Bearer ${token}`
+        }
+      });
+
+      if (!response.ok) {
+        throw new Error('Suggest failed');
+      }
+
+      const data = await response.json();
+      // The label of a user suggestion is the display name
+      setSearchResults(data
+        .filter(suggestion => suggestion.type === 'USER')
+        .map(suggestion => ({
+          id: suggestion.id,
+          username: suggestion.username,
+          firstName: suggestion.label,
+          profilePicture: suggestion.profilePicture
+        })));
+      setShowSearchResults(true);
+    } catch (error) {
+      console.error('Error fetching suggestions:', error);
+    }
+  };
+
+  // Full search, run when the query is submitted with Enter
   const searchUsers = async (query) => {
     if (!query.trim()) {
       setSearchResults([]);
@@ -70,13 +100,16 @@ const Messaging = () => {
     }
   };
 
-  // Debounce search input
+  // Debounce typeahead input
   useEffect(() => {
     const delayDebounceFn = setTimeout(() => {
-      if (searchTerm) {
-        searchUsers(searchTerm);
+      if (!searchTerm.trim()) {
+        setSearchResults([]);
+        setShowSearchResults(false);
+      } else {
+        fetchSuggestions(searchTerm);
       }
-    }, 300);
+    }, 150);
 
     return () => clearTimeout(delayDebounceFn);
   }, [searchTerm]);
@@ -678,6 +711,7 @@ const Messaging = () => {
                     placeholder="Search for users..."
                     value={searchTerm}
                     onChange={(e) => setSearchTerm(e.target.value)}
+                    onKeyDown={(e) => e.key === 'Enter' && searchUsers(searchTerm)}
                   />
                   <div className="absolute right-3 top-2.5">
                     {isSearching ? (
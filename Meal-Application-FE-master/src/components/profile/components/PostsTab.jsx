@@ -343,7 +343,7 @@ const PostsTab = ({
                   } mr-1`}></i> {post.likes ? post.likes.length : 0} Likes
                 </button>
                 <button className="flex items-center text-gray-500 hover:text-DarkColor">
-                  <i className='bx bx-comment mr-1'></i> {post.comments?.length || 0} Comments
+                  <i className='bx bx-comment mr-1'></i> {post.commentCount ?? post.comments?.length ?? 0} Comments
                 </button>
                 <button 
                   className="flex items-center text-gray-500 hover:text-DarkColor"
@@ -90,14 +90,14 @@ const ProfileHeader = ({
                 className="flex items-center text-sm text-gray-700 hover:text-DarkColor transition-colors"
               >
                 <i className='bx bx-user-plus text-DarkColor'></i>
-                <span className="ml-1 font-medium">{user.followers ? user.followers.length : 0} Followers</span>
+                <span className="ml-1 font-medium">{user.followerCount ?? (user.followers ? user.followers.length : 0)} Followers</span>
               </button>
               <button
                 onClick={handleShowFollowing}
                 className="flex items-center text-sm text-gray-700 hover:text-DarkColor transition-colors"
               >
                 <i className='bx bx-user-check text-DarkColor'></i>
-                <span className="ml-1 font-medium">{user.following ? user.following.length : 0} Following</span>
+                <span className="ml-1 font-medium">{user.followingCount ?? (user.following ? user.following.length : 0)} Following</span>
               </button>
             </div>
           </div>
@@ -69,6 +69,13 @@ export const AuthProvider = ({ children }) => {
 
   // Logout function
   const logout = () => {
+    // Revoke the token server-side; the local session is cleared either way
+    const storedToken = localStorage.getItem(TOKEN_KEY);
+    if (storedToken) {
+      axios.post(`${API_URL}/auth/logout`, null, {
+        headers: { Authorization: `Bearer ${storedToken}` }
+      }).catch((error) => console.error('Logout error:', error));
+    }
     localStorage.removeItem(TOKEN_KEY);
     localStorage.removeItem(USER_KEY);
     setToken(null);